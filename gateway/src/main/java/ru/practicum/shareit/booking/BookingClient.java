@@ -1,22 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.EventStreamRelay;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final EventStreamRelay eventStreamRelay;
+
     @Autowired
     public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
         super(
@@ -25,22 +35,27 @@ public class BookingClient extends BaseClient {
                         .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
+        this.eventStreamRelay = new EventStreamRelay(serverUrl + API_PREFIX);
     }
 
-    public ResponseEntity<Object> getAllUserBookings(long userId, State state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getAllUserBookings(long userId, State state, LocalDateTime cursorEnd,
+                                                     Long cursorId, int size) {
+        return getPage("", userId, state, cursorEnd, cursorId, size);
     }
 
-    public ResponseEntity<Object> getOwnerItemsBookings(long userId, State state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("/owner?state={state}", userId, parameters);
+    public ResponseEntity<Object> getOwnerItemsBookings(long userId, State state, LocalDateTime cursorEnd,
+                                                        Long cursorId, int size) {
+        return getPage("/owner", userId, state, cursorEnd, cursorId, size);
     }
 
     public ResponseEntity<Object> createBooking(long userId, BookingCreateDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> createBookings(long userId, List<BookingCreateDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
     public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
@@ -49,4 +64,41 @@ public class BookingClient extends BaseClient {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
+
+    public ResponseEntity<Object> itemOwnerBookingsSolution(long userId, BookingDecisionDto decisionDto) {
+        return patch("/owner/decisions", userId, decisionDto);
+    }
+
+    public ResponseEntity<Object> getUserBookingCounts(long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> getOwnerBookingCounts(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public void exportOwnerBookings(long userId, HttpServletResponse response) throws IOException {
+        stream("/owner/export", userId, null, response);
+    }
+
+    public ResponseBodyEmitter streamBookingStatuses(long userId) {
+        return eventStreamRelay.relay("/stream", userId);
+    }
+
+    private ResponseEntity<Object> getPage(String path, long userId, State state, LocalDateTime cursorEnd,
+                                           Long cursorId, int size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("size", size);
+        path += "?state={state}&size={size}";
+        if (cursorEnd != null) {
+            parameters.put("cursorEnd", cursorEnd);
+            path += "&cursorEnd={cursorEnd}";
+        }
+        if (cursorId != null) {
+            parameters.put("cursorId", cursorId);
+            path += "&cursorId={cursorId}";
+        }
+        return get(path, userId, parameters);
+    }
 }
\ No newline at end of file
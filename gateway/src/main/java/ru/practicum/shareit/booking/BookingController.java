@@ -1,14 +1,28 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RequiredArgsConstructor
 @Slf4j
 @RestController
@@ -24,6 +38,15 @@ public class BookingController {
         return bookingClient.createBooking(bookerId, bookingCreateDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                 @RequestBody @NotEmpty @Size(max = 500)
+                                                 List<@Valid BookingCreateDto> bookingCreateDtos) {
+        log.info("Получен запрос на пакетное добавление {} бронирований от пользователя с id {}",
+                bookingCreateDtos.size(), bookerId);
+        return bookingClient.createBookings(bookerId, bookingCreateDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> itemOwnerBookingSolution(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                @RequestParam(value = "approved") Boolean approved,
@@ -33,6 +56,41 @@ public class BookingController {
         return bookingClient.itemOwnerBookingSolution(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/owner/decisions")
+    public ResponseEntity<Object> itemOwnerBookingsSolution(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                            @Valid @RequestBody BookingDecisionDto decisionDto) {
+        log.info("Получен запрос на изменение статуса {} бронирований от пользователя с id {}",
+                decisionDto.getBookingIds().size(), ownerId);
+        return bookingClient.itemOwnerBookingsSolution(ownerId, decisionDto);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") long bookerId) {
+        log.info("Получен запрос на получение количества бронирований пользователя с id {} по состояниям",
+                bookerId);
+        return bookingClient.getUserBookingCounts(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Получен запрос на получение количества бронирований вещей пользователя с id {} по состояниям",
+                ownerId);
+        return bookingClient.getOwnerBookingCounts(ownerId);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                    HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку всех бронирований вещей пользователя с id {}", ownerId);
+        bookingClient.exportOwnerBookings(ownerId, response);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseBodyEmitter streamBookingStatuses(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Получен запрос на подписку на изменения статусов бронирований от пользователя с id {}", userId);
+        return bookingClient.streamBookingStatuses(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                      @PathVariable @Positive long bookingId) {
@@ -44,19 +102,42 @@ public class BookingController {
     @GetMapping
     public ResponseEntity<Object> getAllUserBookings(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                      @RequestParam(value = "state",
-                                                             defaultValue = "ALL") String state) {
+                                                             defaultValue = "ALL") String state,
+                                                     @RequestParam(value = "cursorEnd", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime cursorEnd,
+                                                     @RequestParam(value = "cursorId", required = false)
+                                                     Long cursorId,
+                                                     @RequestParam(value = "size", defaultValue = "20")
+                                                     @Positive @Max(100) int size) {
         log.info("Получен запрос на получение данных обо всех бронированиях пользователя с id {} " +
-                "со статусом бронирования {}", bookerId, state);
-        return bookingClient.getAllUserBookings(bookerId, State.valueOf(state));
+                "со статусом бронирования {} после ({}, {})", bookerId, state, cursorEnd, cursorId);
+        checkCursor(cursorEnd, cursorId);
+        return bookingClient.getAllUserBookings(bookerId, State.valueOf(state), cursorEnd, cursorId, size);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getOwnerItemsBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                         @RequestParam(value = "state",
-                                                                defaultValue = "ALL") String state) {
+                                                                defaultValue = "ALL") String state,
+                                                        @RequestParam(value = "cursorEnd", required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime cursorEnd,
+                                                        @RequestParam(value = "cursorId", required = false)
+                                                        Long cursorId,
+                                                        @RequestParam(value = "size", defaultValue = "20")
+                                                        @Positive @Max(100) int size) {
         log.info("Получен запрос на получение данных обо всех бронированиях всех вещей пользователя с id {} " +
-                "со статусом бронирования {}", ownerId, state);
-        return bookingClient.getOwnerItemsBookings(ownerId, State.valueOf(state));
+                "со статусом бронирования {} после ({}, {})", ownerId, state, cursorEnd, cursorId);
+        checkCursor(cursorEnd, cursorId);
+        return bookingClient.getOwnerItemsBookings(ownerId, State.valueOf(state), cursorEnd, cursorId, size);
+    }
+
+    private static void checkCursor(LocalDateTime cursorEnd, Long cursorId) {
+        if ((cursorEnd == null) != (cursorId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Параметры cursorEnd и cursorId задаются только вместе");
+        }
     }
 }
 
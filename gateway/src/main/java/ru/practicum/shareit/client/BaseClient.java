@@ -1,15 +1,21 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
@@ -79,6 +85,61 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Проксирует GET-запрос к серверу, копируя тело ответа в response по мере поступления, без буферизации.
+     */
+    protected void stream(String path, long userId, @Nullable Map<String, Object> parameters,
+                          HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        RequestCallback requestCallback = request -> request.getHeaders().putAll(headers);
+        ResponseExtractor<Void> responseExtractor = shareitServerResponse -> {
+            response.setStatus(shareitServerResponse.getStatusCode().value());
+            MediaType contentType = shareitServerResponse.getHeaders().getContentType();
+            if (contentType != null) {
+                response.setContentType(contentType.toString());
+            }
+            StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+            return null;
+        };
+        try {
+            rest.execute(path, HttpMethod.GET, requestCallback, responseExtractor,
+                    parameters != null ? parameters : Map.of());
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            MediaType contentType = e.getResponseHeaders() != null ? e.getResponseHeaders().getContentType() : null;
+            if (contentType != null) {
+                response.setContentType(contentType.toString());
+            }
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    /**
+     * Отправляет POST-запрос, тело которого пишется в соединение с сервером по мере формирования, без буферизации.
+     * Исключение при записи тела прерывает запрос и передаётся вызывающему. Запрос выполняется через uploadRest:
+     * прерывание зависит от клиента HTTP, поэтому для загрузки он может отличаться от клиента остальных запросов.
+     */
+    protected ResponseEntity<Object> upload(RestTemplate uploadRest, String path, long userId, MediaType contentType,
+                                            StreamingHttpOutputMessage.Body body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setContentType(contentType);
+        RequestCallback requestCallback = request -> {
+            request.getHeaders().putAll(headers);
+            if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        };
+        try {
+            return prepareGatewayResponse(uploadRest.execute(path, HttpMethod.POST, requestCallback,
+                    uploadRest.responseEntityExtractor(Object.class)));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
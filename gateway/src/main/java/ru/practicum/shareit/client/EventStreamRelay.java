@@ -0,0 +1,144 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Flow;
+
+/**
+ * Пробрасывает поток text/event-stream сервера клиенту шлюза. Поток сервера читается неблокирующим
+ * {@link HttpClient}, а события пишутся в асинхронный ответ по мере поступления, поэтому открытая подписка
+ * не занимает ни поток контейнера, ни поток клиента. Временем жизни подписки управляет сервер:
+ * когда он закрывает поток, закрывается и ответ шлюза, и наоборот.
+ */
+@Slf4j
+public class EventStreamRelay {
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    public EventStreamRelay(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public ResponseBodyEmitter relay(String path, long userId) {
+        EventStreamEmitter emitter = new EventStreamEmitter();
+        EventForwarder forwarder = new EventForwarder(emitter);
+        emitter.onCompletion(forwarder::cancel);
+        emitter.onError(e -> forwarder.cancel());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .GET()
+                .build();
+        httpClient.sendAsync(request, responseInfo -> responseInfo.statusCode() == HttpStatus.OK.value()
+                        ? BodySubscribers.fromLineSubscriber(forwarder)
+                        : BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                            forwarder.fail(responseInfo.statusCode(), body);
+                            return null;
+                        }))
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.warn("Поток событий {} прерван: {}", path, e.getMessage());
+                        emitter.completeWithError(e);
+                    }
+                });
+        return emitter;
+    }
+
+    /**
+     * Ответ без тайм-аута контейнера с типом text/event-stream, данные пишутся в него без преобразований.
+     */
+    private static final class EventStreamEmitter extends ResponseBodyEmitter {
+        private EventStreamEmitter() {
+            super(0L);
+        }
+
+        @Override
+        protected void extendResponse(ServerHttpResponse outputMessage) {
+            outputMessage.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+    }
+
+    /**
+     * Собирает строки потока в события (событие заканчивается пустой строкой) и отправляет каждое
+     * одной записью, чтобы клиент не получал событие по частям.
+     */
+    private static final class EventForwarder implements Flow.Subscriber<String> {
+        private final ResponseBodyEmitter emitter;
+        private final StringBuilder event = new StringBuilder();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        private EventForwarder(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            event.append(line).append('\n');
+            if (line.isEmpty()) {
+                String data = event.toString();
+                event.setLength(0);
+                send(data);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.completeWithError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.complete();
+        }
+
+        private void fail(int status, String body) {
+            log.debug("Сервер отклонил подписку на поток событий со статусом {}", status);
+            StringBuilder data = new StringBuilder("event: error\n");
+            body.lines().forEach(line -> data.append("data: ").append(line).append('\n'));
+            send(data.append('\n').toString());
+            emitter.complete();
+        }
+
+        private void send(String data) {
+            try {
+                emitter.send(data.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_OCTET_STREAM);
+            } catch (IOException | IllegalStateException e) {
+                cancel();
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
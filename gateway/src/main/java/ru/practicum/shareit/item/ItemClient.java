@@ -1,37 +1,78 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 
+import java.io.InputStream;
+import java.net.http.HttpClient;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final RestTemplate uploadRest;
+    private final ItemImportFilter itemImportFilter;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectMapper objectMapper, Validator validator) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
+        this.uploadRest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .requestFactory(() -> new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .build()))
+                .build();
+        this.itemImportFilter = new ItemImportFilter(objectMapper, validator);
     }
 
     public ResponseEntity<Object> createItem(long userId, ItemCreateDto itemCreateDto) {
         return post("", userId, itemCreateDto);
     }
 
+    /**
+     * Импорт отправляется через клиент JDK: он обрывает соединение, если запись тела завершилась исключением,
+     * и сервер не получает корректно завершённого тела. Остальные запросы идут через Apache HttpClient.
+     * Отклонённая строка возвращается клиенту как 400 с её номером.
+     */
+    public ResponseEntity<Object> importItems(long userId, InputStream items) {
+        try {
+            return upload(uploadRest, "/import", userId, MediaType.APPLICATION_NDJSON,
+                    out -> itemImportFilter.copy(items, out));
+        } catch (ResourceAccessException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ItemImportFilter.RejectedLineException rejected) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, rejected.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemUpdateDto itemUpdateDto) {
         return patch("/" + itemId, userId, itemUpdateDto);
     }
@@ -44,9 +85,29 @@ public class ItemClient extends BaseClient {
         return get("/", userId);
     }
 
-    public ResponseEntity<Object> getSearchItems(String text) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", null, parameters);
+    public ResponseEntity<Object> getSearchItems(String text, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getItemSuggestions(String prefix, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getItemAvailability(long itemId, AvailabilityPeriodDto period) {
+        Map<String, Object> parameters = Map.of(
+                "from", period.getFrom(),
+                "to", period.getTo()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
     public ResponseEntity<Object> deleteItemById(long userId, long itemId) {
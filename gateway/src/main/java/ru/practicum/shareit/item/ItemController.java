@@ -1,15 +1,22 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,6 +37,13 @@ public class ItemController {
         return itemClient.createItem(ownerId, itemCreateDto);
     }
 
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> importItems(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                              HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на импорт предметов пользователя с id={}", ownerId);
+        return itemClient.importItems(ownerId, request.getInputStream());
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long ownerId,
                               @PathVariable Long itemId,
@@ -52,12 +66,36 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getSearchItems(@RequestParam("text") String text) {
-        log.info("Получен запрос на поиск предметов с символами {} в названии или описании.", text);
+    public ResponseEntity<Object> getSearchItems(@RequestParam("text") String text,
+                                                 @RequestParam(value = "from", defaultValue = "0")
+                                                 @PositiveOrZero @Max(10_000) int from,
+                                                 @RequestParam(value = "size", defaultValue = "20")
+                                                 @Positive @Max(100) int size) {
+        log.info("Получен запрос на поиск предметов с символами {} в названии или описании с {} в количестве {}.",
+                text, from, size);
         if (text.isBlank()) {
             return ResponseEntity.ok(new ArrayList<>());
         }
-        return itemClient.getSearchItems(text);
+        return itemClient.getSearchItems(text, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> getItemSuggestions(@RequestParam("prefix") String prefix,
+                                                     @RequestParam(value = "size", defaultValue = "10")
+                                                     @Positive @Max(20) int size) {
+        log.info("Получен запрос на подсказки по началу названия {}.", prefix);
+        if (prefix.isBlank()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        return itemClient.getItemSuggestions(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getItemAvailability(@PathVariable long itemId,
+                                                      @Valid AvailabilityPeriodDto period) {
+        log.info("Получен запрос на получение занятости предмета с id={} с {} по {}.", itemId,
+                period.getFrom(), period.getTo());
+        return itemClient.getItemAvailability(itemId, period);
     }
 
     @DeleteMapping("/{itemId}")
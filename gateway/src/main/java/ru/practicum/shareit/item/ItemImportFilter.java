@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проверяет NDJSON-поток импорта вещей построчно по тем же правилам, что и POST /items, и переписывает
+ * проверенные строки в поток запроса к серверу. На первой некорректной строке запись прерывается
+ * {@link RejectedLineException}: HTTP-клиент обрывает соединение, не завершая тело запроса, поэтому
+ * сервер получает ошибку чтения и откатывает импорт целиком.
+ */
+@Slf4j
+public class ItemImportFilter {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ItemImportFilter(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public void copy(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ItemCreateDto itemCreateDto = parse(line, lineNumber);
+            out.write(objectMapper.writeValueAsBytes(itemCreateDto));
+            out.write('\n');
+        }
+    }
+
+    private ItemCreateDto parse(String line, int lineNumber) throws RejectedLineException {
+        ItemCreateDto itemCreateDto;
+        try {
+            itemCreateDto = objectMapper.readValue(line, ItemCreateDto.class);
+        } catch (JsonProcessingException e) {
+            throw reject(lineNumber, "некорректный JSON");
+        }
+        Set<ConstraintViolation<ItemCreateDto>> violations = validator.validate(itemCreateDto);
+        if (!violations.isEmpty()) {
+            throw reject(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+        }
+        return itemCreateDto;
+    }
+
+    private static RejectedLineException reject(int lineNumber, String reason) {
+        log.info("Импорт предметов отклонён: строка {}: {}", lineNumber, reason);
+        return new RejectedLineException("Строка " + lineNumber + ": " + reason);
+    }
+
+    /**
+     * Строка импорта не прошла проверку. Это IOException, чтобы HTTP-клиент считал запись тела
+     * неудавшейся и обрывал запрос.
+     */
+    public static class RejectedLineException extends IOException {
+        public RejectedLineException(String message) {
+            super(message);
+        }
+    }
+}
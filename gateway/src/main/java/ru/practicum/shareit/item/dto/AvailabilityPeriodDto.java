@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityPeriodDto {
+    public static final int MAX_DAYS = 366;
+
+    @NotNull(message = "Дата начала периода не может быть пустой.")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @NotNull(message = "Дата окончания периода не может быть пустой.")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    @AssertTrue(message = "Период должен начинаться не позже своего окончания и быть не длиннее " + MAX_DAYS
+            + " дней.")
+    public boolean isPeriodValid() {
+        return from == null || to == null || !to.isBefore(from) && to.toEpochDay() - from.toEpochDay() < MAX_DAYS;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,14 +9,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -79,6 +85,84 @@ class BookingControllerTest {
         verify(bookingClient, never()).createBooking(anyLong(), any(BookingCreateDto.class));
     }
 
+    @Test
+    void createValidBookingsBatch() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookingCreateDto, bookingCreateDto))))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).createBookings(eq(1L), anyList());
+    }
+
+    @Test
+    void notCreateBookingsBatchWithInvalidEntry() throws Exception {
+        BookingCreateDto invalid = new BookingCreateDto(1L, LocalDateTime.of(2050, 1, 1, 11, 0),
+                LocalDateTime.of(2050, 1, 1, 10, 0), 0L);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookingCreateDto, invalid))))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), anyList());
+    }
+
+    @Test
+    void notCreateEmptyBookingsBatch() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), anyList());
+    }
+
+    @Test
+    void getValidBookingCounts() throws Exception {
+        mockMvc.perform(get("/bookings/counts")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).getUserBookingCounts(1L);
+        verify(bookingClient, times(1)).getOwnerBookingCounts(2L);
+    }
+
+    @Test
+    void exportValidOwnerBookings() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).exportOwnerBookings(eq(1L), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void streamValidBookingStatuses() throws Exception {
+        when(bookingClient.streamBookingStatuses(1L)).thenReturn(new ResponseBodyEmitter());
+
+        mockMvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(bookingClient, times(1)).streamBookingStatuses(1L);
+    }
+
+    @Test
+    void streamInvalidBookingStatusesWithoutUserHeader() throws Exception {
+        mockMvc.perform(get("/bookings/stream"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).streamBookingStatuses(anyLong());
+    }
+
     @Test
     void itemValidOwnerBookingSolution() throws Exception {
         mockMvc.perform(patch("/bookings/{bookingId}", 1L)
@@ -90,6 +174,39 @@ class BookingControllerTest {
                 eq(1L), eq(true));
     }
 
+    @Test
+    void itemValidOwnerBookingsSolution() throws Exception {
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(1L, 2L), true))))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).itemOwnerBookingsSolution(eq(1L),
+                eq(new BookingDecisionDto(List.of(1L, 2L), true)));
+    }
+
+    @Test
+    void notItemOwnerBookingsSolutionWithInvalidBody() throws Exception {
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(), true))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(-1L), true))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(1L), null))))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).itemOwnerBookingsSolution(anyLong(), any(BookingDecisionDto.class));
+    }
+
     @Test
     void itemInvalidOwnerBookingSolution() throws Exception {
         mockMvc.perform(patch("/bookings/{bookingId}", 1L)
@@ -115,7 +232,7 @@ class BookingControllerTest {
                         .param("state", "PAST"))
                 .andExpect(status().isOk());
 
-        verify(bookingClient, times(1)).getAllUserBookings(eq(1L), any());
+        verify(bookingClient, times(1)).getAllUserBookings(eq(1L), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -124,7 +241,7 @@ class BookingControllerTest {
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk());
 
-        verify(bookingClient, times(1)).getAllUserBookings(eq(1L), any());
+        verify(bookingClient, times(1)).getAllUserBookings(eq(1L), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -134,7 +251,7 @@ class BookingControllerTest {
                         .param("state", "PAST"))
                 .andExpect(status().isOk());
 
-        verify(bookingClient, times(1)).getOwnerItemsBookings(eq(1L), any());
+        verify(bookingClient, times(1)).getOwnerItemsBookings(eq(1L), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -143,7 +260,7 @@ class BookingControllerTest {
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk());
 
-        verify(bookingClient, times(1)).getOwnerItemsBookings(eq(1L), any());
+        verify(bookingClient, times(1)).getOwnerItemsBookings(eq(1L), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -152,6 +269,49 @@ class BookingControllerTest {
                         .param("state", "PAST"))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getOwnerItemsBookings(eq(1L), any());
+        verify(bookingClient, never()).getOwnerItemsBookings(eq(1L), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getValidOwnerItemsBookingsWithCursor() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursorEnd", "2050-01-01T11:00:00")
+                        .param("cursorId", "5")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).getOwnerItemsBookings(eq(1L), eq(State.ALL),
+                eq(LocalDateTime.of(2050, 1, 1, 11, 0)), eq(5L), eq(10));
+    }
+
+    @Test
+    void getInvalidOwnerItemsBookingsWithCursorIdOnly() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursorId", "5"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).getOwnerItemsBookings(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getInvalidAllUserBookingsWithCursorEndOnly() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursorEnd", "2050-01-01T11:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).getAllUserBookings(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getInvalidAllUserBookingsWithTooLargePageSize() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).getAllUserBookings(anyLong(), any(), any(), any(), anyInt());
     }
-}
\ No newline at end of file
+}
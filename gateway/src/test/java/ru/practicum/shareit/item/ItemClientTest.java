@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemClientTest {
+    private HttpServer server;
+    private ValidatorFactory validatorFactory;
+    private ItemClient itemClient;
+    private CompletableFuture<String> received;
+    private Map<String, String> userAgents;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        received = new CompletableFuture<>();
+        userAgents = new ConcurrentHashMap<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> {
+            userAgents.put(exchange.getRequestURI().getPath(), exchange.getRequestHeaders().getFirst("User-Agent"));
+            byte[] response = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/items/import", exchange -> {
+            userAgents.put(exchange.getRequestURI().getPath(), exchange.getRequestHeaders().getFirst("User-Agent"));
+            try (InputStream body = exchange.getRequestBody()) {
+                received.complete(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                byte[] response = "{\"imported\":2}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } catch (IOException e) {
+                received.completeExceptionally(e);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        itemClient = new ItemClient("http://localhost:" + server.getAddress().getPort(), new RestTemplateBuilder(),
+                new ObjectMapper(), validatorFactory.getValidator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        validatorFactory.close();
+    }
+
+    @Test
+    void importItems_ShouldStreamValidLinesToServer() throws Exception {
+        ResponseEntity<Object> response = itemClient.importItems(1L, input("""
+                {"name":"Дрель","description":"Ударная","available":true}
+                {"name":"Лестница","description":"Складная","available":false}
+                """));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, received.get(1, TimeUnit.SECONDS).split("\n").length);
+    }
+
+    @Test
+    void importItems_ShouldUseJdkClientOnlyForUpload() {
+        itemClient.importItems(1L, input("""
+                {"name":"Дрель","description":"Ударная","available":true}
+                """));
+        itemClient.getItemById(1L, 1L);
+
+        assertTrue(userAgents.get("/items/import").startsWith("Java-http-client"), userAgents.toString());
+        assertTrue(userAgents.get("/items/1").startsWith("Apache-HttpClient"), userAgents.toString());
+    }
+
+    @Test
+    void importItems_ShouldAbortUpstreamRequest_WhenLineInvalid() throws Exception {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> itemClient.importItems(1L,
+                input("""
+                        {"name":"Дрель","description":"Ударная","available":true}
+                        {"name":"Лестница","description":"Складная"}
+                        """)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertTrue(e.getReason().startsWith("Строка 2: "));
+        try {
+            fail("Сервер получил завершённое тело запроса: " + received.get(1, TimeUnit.SECONDS));
+        } catch (ExecutionException readFailed) {
+            assertInstanceOf(IOException.class, readFailed.getCause());
+        } catch (TimeoutException notReceived) {
+            // запрос оборван до того, как сервер начал читать тело
+        }
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
@@ -125,7 +126,7 @@ class ItemControllerTest {
                         .param("text", "Предмет"))
                 .andExpect(status().isOk());
 
-        verify(itemClient, times(1)).getSearchItems("Предмет");
+        verify(itemClient, times(1)).getSearchItems("Предмет", 0, 20);
     }
 
     @Test
@@ -134,7 +135,92 @@ class ItemControllerTest {
                         .param("text", ""))
                 .andExpect(status().isOk());
 
-        verify(itemClient, never()).getSearchItems("");
+        verify(itemClient, never()).getSearchItems("", 0, 20);
+    }
+
+    @Test
+    void searchItemsWithPage() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "Предмет")
+                        .param("from", "40")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).getSearchItems("Предмет", 40, 10);
+    }
+
+    @Test
+    void searchItemsInvalidPage() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "Предмет")
+                        .param("from", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/search")
+                        .param("text", "Предмет")
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getSearchItems(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void importItemsValid() throws Exception {
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n"))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).importItems(eq(1L), any());
+    }
+
+    @Test
+    void suggestItemsValid() throws Exception {
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "Пре"))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).getItemSuggestions("Пре", 10);
+    }
+
+    @Test
+    void suggestItemsWithBlankPrefixOrInvalidSize() throws Exception {
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", " "))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "Пре")
+                        .param("size", "21"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getItemSuggestions(anyString(), anyInt());
+    }
+
+    @Test
+    void getItemAvailabilityValid() throws Exception {
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2050-03-01")
+                        .param("to", "2050-03-31"))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).getItemAvailability(eq(1L), any(AvailabilityPeriodDto.class));
+    }
+
+    @Test
+    void getItemAvailabilityWithInvalidPeriod() throws Exception {
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2050-03-31")
+                        .param("to", "2050-03-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2050-01-01")
+                        .param("to", "2051-12-31"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2050-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getItemAvailability(anyLong(), any(AvailabilityPeriodDto.class));
     }
 
     @Test
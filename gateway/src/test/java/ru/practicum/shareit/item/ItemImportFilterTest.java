@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemImportFilterTest {
+    private ValidatorFactory validatorFactory;
+    private ItemImportFilter filter;
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        filter = new ItemImportFilter(new ObjectMapper(), validatorFactory.getValidator());
+        out = new ByteArrayOutputStream();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void copy_ShouldPassValidLinesAndSkipBlankOnes() throws Exception {
+        filter.copy(input("""
+                {"name":"Дрель","description":"Ударная","available":true}
+
+                {"name":"Лестница","description":"Складная","available":false,"requestId":3}
+                """), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Дрель\""));
+        assertTrue(lines[1].contains("\"requestId\":3"));
+    }
+
+    @Test
+    void copy_ShouldRejectFirstInvalidLineWithItsNumber() {
+        ItemImportFilter.RejectedLineException e = assertThrows(ItemImportFilter.RejectedLineException.class,
+                () -> filter.copy(input("""
+                {"name":"Дрель","description":"Ударная","available":true}
+                {"name":"","description":"Складная"}
+                """), out));
+
+        assertTrue(e.getMessage().startsWith("Строка 2: "));
+        assertTrue(e.getMessage().contains("Название предмета не может быть пустым."));
+        assertTrue(e.getMessage().contains("Статус аренды предмета не может быть пустым."));
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void copy_ShouldRejectMalformedJson() {
+        ItemImportFilter.RejectedLineException e = assertThrows(ItemImportFilter.RejectedLineException.class,
+                () -> filter.copy(input("{\"name\":\"Дрель\""), out));
+
+        assertEquals("Строка 1: некорректный JSON", e.getMessage());
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
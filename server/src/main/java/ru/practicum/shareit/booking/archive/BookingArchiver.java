@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.counter.CountedBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит бронирования, завершившиеся раньше срока хранения (shareit.bookings.archive.retention-months),
+ * из bookings в bookings_archive (PostgreSQL). Строки переносятся пачками по batch-size штук, каждая пачка -
+ * один запрос DELETE ... RETURNING с INSERT в архив в отдельной короткой транзакции: строки выбираются
+ * с SKIP LOCKED, поэтому перенос не ждёт и не блокирует бронирования, которые меняются в это время.
+ * Перенесённые бронирования снимаются со счётчиков состояний.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.archive.enabled", havingValue = "true")
+public class BookingArchiver {
+    private static final String ARCHIVE_BATCH = """
+            WITH moved AS (
+              DELETE FROM bookings WHERE id IN (
+                SELECT id FROM bookings WHERE end_date < ?
+                ORDER BY end_date
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+              RETURNING id, start_date, end_date, name, item_id, booker_id, status, version
+            ), archived AS (
+              INSERT INTO bookings_archive (id, start_date, end_date, name, item_id, booker_id, status, version)
+              SELECT id, start_date, end_date, name, item_id, booker_id, status, version FROM moved
+            )
+            SELECT m.id, m.booker_id, i.owner_id, m.status, m.start_date, m.end_date
+            FROM moved m
+            JOIN items i ON i.id = m.item_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingStateCounters bookingStateCounters;
+    private final int retentionMonths;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public BookingArchiver(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           BookingStateCounters bookingStateCounters,
+                           @Value("${shareit.bookings.archive.retention-months:24}") int retentionMonths,
+                           @Value("${shareit.bookings.archive.batch-size:1000}") int batchSize,
+                           @Value("${shareit.bookings.archive.max-batches:1000}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingStateCounters = bookingStateCounters;
+        this.retentionMonths = retentionMonths;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron:0 0 3 * * *}")
+    public void archive() {
+        archive(LocalDate.now().minusMonths(retentionMonths).atStartOfDay());
+    }
+
+    /**
+     * Переносит в архив бронирования, завершившиеся до threshold. Обрабатывает не больше max-batches пачек,
+     * остаток достанется следующему запуску.
+     *
+     * @return количество перенесённых бронирований
+     */
+    public int archive(LocalDateTime threshold) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(threshold));
+            int count = archived == null ? 0 : archived;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} бронирований, завершившихся до {}, перенесены в bookings_archive", total, threshold);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime threshold) {
+        List<ArchivedBooking> bookings = jdbcTemplate.query(ARCHIVE_BATCH, (rs, rowNum) -> new ArchivedBooking(
+                rs.getLong("id"), rs.getLong("booker_id"), rs.getLong("owner_id"),
+                BookingStatus.valueOf(rs.getString("status")), rs.getTimestamp("start_date").toLocalDateTime(),
+                rs.getTimestamp("end_date").toLocalDateTime()), threshold, batchSize);
+        bookingStateCounters.remove(bookings);
+        return bookings.size();
+    }
+
+    private record ArchivedBooking(Long id, Long bookerId, Long ownerId, BookingStatus status,
+                                   LocalDateTime startDate, LocalDateTime endDate) implements CountedBooking {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public BookingStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public LocalDateTime getStartDate() {
+            return startDate;
+        }
+
+        @Override
+        public LocalDateTime getEndDate() {
+            return endDate;
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Slf4j
@@ -18,6 +31,8 @@ import java.util.Collection;
 public class BookingController {
     @Autowired
     private final BookingService bookingService;
+    @Autowired
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestHeader("X-Sharer-User-Id") long bookerId,
@@ -26,6 +41,14 @@ public class BookingController {
         return bookingService.createBooking(bookingCreateDto, bookerId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                      @RequestBody List<BookingCreateDto> bookingCreateDtos) {
+        log.info("Получен запрос на пакетное добавление {} бронирований от пользователя с id {}",
+                bookingCreateDtos.size(), bookerId);
+        return bookingService.createBookings(bookingCreateDtos, bookerId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto itemOwnerBookingSolution(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                @RequestParam(value = "approved") Boolean approved,
@@ -35,6 +58,52 @@ public class BookingController {
         return bookingService.itemOwnerBookingSolution(bookingId, ownerId, approved);
     }
 
+    @PatchMapping("/owner/decisions")
+    public List<BookingDto> itemOwnerBookingsSolution(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                      @RequestBody BookingDecisionDto decisionDto) {
+        log.info("Получен запрос на изменение статуса {} бронирований от пользователя с id {}",
+                decisionDto.getBookingIds().size(), ownerId);
+        return bookingService.itemOwnerBookingsSolution(decisionDto.getBookingIds(), ownerId,
+                decisionDto.getApproved());
+    }
+
+    @GetMapping("/counts")
+    public Map<State, Long> getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") long bookerId) {
+        log.info("Получен запрос на получение количества бронирований пользователя с id {} по состояниям",
+                bookerId);
+        return bookingService.getUserBookingCounts(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<State, Long> getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Получен запрос на получение количества бронирований вещей пользователя с id {} по состояниям",
+                ownerId);
+        return bookingService.getOwnerBookingCounts(ownerId);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                    HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку всех бронирований вещей пользователя с id {}", ownerId);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        bookingService.exportOwnerBookings(ownerId, bookingDto -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(bookingDto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingStatuses(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Получен запрос на подписку на изменения статусов бронирований от пользователя с id {}", userId);
+        return bookingService.subscribeToStatusChanges(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                      @PathVariable long bookingId) {
@@ -46,19 +115,31 @@ public class BookingController {
     @GetMapping
     public Collection<BookingDto> getAllUserBookings(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                      @RequestParam(value = "state",
-                                                             defaultValue = "ALL") String state) {
+                                                             defaultValue = "ALL") String state,
+                                                     @RequestParam(value = "cursorEnd", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime cursorEnd,
+                                                     @RequestParam(value = "cursorId", required = false)
+                                                     Long cursorId,
+                                                     @RequestParam(value = "size", defaultValue = "20") int size) {
         log.info("Получен запрос на получение данных обо всех бронированиях пользователя с id {} " +
-                "со статусом бронирования {}", bookerId, state);
-        return bookingService.getAllUserBookings(bookerId, State.valueOf(state));
+                "со статусом бронирования {} после ({}, {})", bookerId, state, cursorEnd, cursorId);
+        return bookingService.getAllUserBookings(bookerId, State.valueOf(state), cursorEnd, cursorId, size);
     }
 
     @GetMapping("/owner")
     public Collection<BookingDto> getOwnerItemsBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                         @RequestParam(value = "state",
-                                                                defaultValue = "ALL") String state) {
+                                                                defaultValue = "ALL") String state,
+                                                        @RequestParam(value = "cursorEnd", required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime cursorEnd,
+                                                        @RequestParam(value = "cursorId", required = false)
+                                                        Long cursorId,
+                                                        @RequestParam(value = "size", defaultValue = "20") int size) {
         log.info("Получен запрос на получение данных обо всех бронированиях всех вещей пользователя с id {} " +
-                "со статусом бронирования {}", ownerId, state);
-        return bookingService.getOwnerItemsBookings(ownerId, State.valueOf(state));
+                "со статусом бронирования {} после ({}, {})", ownerId, state, cursorEnd, cursorId);
+        return bookingService.getOwnerItemsBookings(ownerId, State.valueOf(state), cursorEnd, cursorId, size);
     }
 }
 
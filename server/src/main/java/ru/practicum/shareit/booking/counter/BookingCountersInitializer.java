@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строит счётчики состояний бронирований до запуска веб-сервера, чтобы первые запросы не получили
+ * пустые счётчики и не изменили их до загрузки снимка из БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingCountersInitializer implements SmartInitializingSingleton {
+    private final BookingRepository bookingRepository;
+    private final BookingStateCounters bookingStateCounters;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        log.trace("Начало построения счётчиков состояний бронирований");
+        LocalDateTime now = LocalDateTime.now();
+        bookingStateCounters.rebuild(bookingRepository.countStatesByBooker(now),
+                bookingRepository.countStatesByOwner(now), bookingRepository.findEndingAfter(now), now);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.counter;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Количество бронирований пользователя с одним статусом в разбивке по времени относительно момента подсчёта.
+ */
+public interface BookingStateAggregate {
+    Long getUserId();
+
+    BookingStatus getStatus();
+
+    Long getTotal();
+
+    Long getPast();
+
+    Long getFuture();
+}
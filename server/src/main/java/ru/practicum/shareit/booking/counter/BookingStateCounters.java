@@ -0,0 +1,239 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Счётчики бронирований по {@link State} для каждого бронирующего и каждого владельца.
+ * Счётчики ALL, WAITING и REJECTED меняются при создании бронирования и смене статуса,
+ * FUTURE, CURRENT и PAST - ещё и со временем: незавершённые бронирования отслеживаются
+ * в очереди моментов начала и окончания, которую периодически разбирает {@link #sweep()}.
+ * Чтение счётчиков не обращается к БД. При откате транзакции изменения счётчиков отменяются.
+ */
+@Slf4j
+@Component
+public class BookingStateCounters {
+    private static final int SIZE = State.values().length;
+
+    private final Map<Long, AtomicLongArray> bookerCounts = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLongArray> ownerCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private final PriorityQueue<Transition> transitions = new PriorityQueue<>(
+            Comparator.comparing(Transition::at));
+
+    public void add(Booking booking) {
+        long bookingId = booking.getId();
+        long bookerId = booking.getBooker().getId();
+        long ownerId = booking.getItem().getOwner().getId();
+        BookingStatus status = booking.getStatus();
+        State phase = track(bookingId, bookerId, ownerId, booking.getStart(), booking.getEnd(), LocalDateTime.now());
+        apply(bookerId, ownerId, State.ALL, 1);
+        apply(bookerId, ownerId, phase, 1);
+        apply(bookerId, ownerId, stateOf(status), 1);
+        afterRollback(() -> {
+            State current = untrack(bookingId);
+            apply(bookerId, ownerId, State.ALL, -1);
+            apply(bookerId, ownerId, current, -1);
+            apply(bookerId, ownerId, stateOf(status), -1);
+        });
+    }
+
+    public void changeStatus(Booking booking, BookingStatus previous) {
+        changeStatus(booking.getBooker().getId(), booking.getItem().getOwner().getId(), previous,
+                booking.getStatus());
+    }
+
+    public void changeStatus(long bookerId, long ownerId, BookingStatus previous, BookingStatus status) {
+        State from = stateOf(previous);
+        State to = stateOf(status);
+        if (from == to) {
+            return;
+        }
+        apply(bookerId, ownerId, from, -1);
+        apply(bookerId, ownerId, to, 1);
+        afterRollback(() -> {
+            apply(bookerId, ownerId, to, -1);
+            apply(bookerId, ownerId, from, 1);
+        });
+    }
+
+    /**
+     * Снимает со счётчиков бронирования, удалённые каскадно вместе с пользователем или вещью.
+     * При откате транзакции они учитываются заново.
+     */
+    public void remove(Collection<? extends CountedBooking> bookings) {
+        for (CountedBooking booking : bookings) {
+            long bookingId = booking.getId();
+            long bookerId = booking.getBookerId();
+            long ownerId = booking.getOwnerId();
+            BookingStatus status = booking.getStatus();
+            LocalDateTime start = booking.getStartDate();
+            LocalDateTime end = booking.getEndDate();
+            State phase = untrack(bookingId);
+            apply(bookerId, ownerId, State.ALL, -1);
+            apply(bookerId, ownerId, phase, -1);
+            apply(bookerId, ownerId, stateOf(status), -1);
+            afterRollback(() -> {
+                State current = track(bookingId, bookerId, ownerId, start, end, LocalDateTime.now());
+                apply(bookerId, ownerId, State.ALL, 1);
+                apply(bookerId, ownerId, current, 1);
+                apply(bookerId, ownerId, stateOf(status), 1);
+            });
+        }
+    }
+
+    public Map<State, Long> getBookerCounts(long bookerId) {
+        return toMap(bookerCounts.get(bookerId), false);
+    }
+
+    /**
+     * Для владельца FUTURE включает и текущие бронирования - так же, как список {@code GET /bookings/owner}.
+     */
+    public Map<State, Long> getOwnerCounts(long ownerId) {
+        return toMap(ownerCounts.get(ownerId), true);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.counters.sweep-interval:60000}")
+    public void sweep() {
+        sweep(LocalDateTime.now());
+    }
+
+    /**
+     * Переводит бронирования, начавшиеся или завершившиеся к моменту now, между FUTURE, CURRENT и PAST.
+     */
+    public synchronized int sweep(LocalDateTime now) {
+        int moved = 0;
+        while (!transitions.isEmpty() && !transitions.peek().at().isAfter(now)) {
+            Tracked booking = tracked.get(transitions.poll().bookingId());
+            if (booking == null) {
+                continue;
+            }
+            State phase = phaseOf(booking.start(), booking.end(), now);
+            if (phase != booking.phase()) {
+                apply(booking.bookerId(), booking.ownerId(), booking.phase(), -1);
+                apply(booking.bookerId(), booking.ownerId(), phase, 1);
+                moved++;
+                if (phase == State.PAST) {
+                    tracked.remove(booking.bookingId());
+                } else {
+                    tracked.put(booking.bookingId(), booking.withPhase(phase));
+                }
+            }
+        }
+        if (moved > 0) {
+            log.debug("Счётчики состояний обновлены для {} бронирований", moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Заполняет счётчики из снимка БД: bookerAggregates и ownerAggregates посчитаны на момент now,
+     * active - бронирования, которые на этот момент ещё не завершились. Вызывается один раз до приёма
+     * запросов, поэтому снимок добавляется к счётчикам, а не заменяет их.
+     */
+    public synchronized void rebuild(Collection<BookingStateAggregate> bookerAggregates,
+                                     Collection<BookingStateAggregate> ownerAggregates,
+                                     Collection<Booking> active, LocalDateTime now) {
+        load(bookerCounts, bookerAggregates);
+        load(ownerCounts, ownerAggregates);
+        for (Booking booking : active) {
+            track(booking.getId(), booking.getBooker().getId(), booking.getItem().getOwner().getId(),
+                    booking.getStart(), booking.getEnd(), now);
+        }
+        log.info("Счётчики состояний бронирований построены: {} бронирующих, {} владельцев, {} незавершённых",
+                bookerCounts.size(), ownerCounts.size(), tracked.size());
+    }
+
+    private synchronized State track(long bookingId, long bookerId, long ownerId,
+                                     LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        State phase = phaseOf(start, end, now);
+        if (phase != State.PAST) {
+            tracked.put(bookingId, new Tracked(bookingId, bookerId, ownerId, start, end, phase));
+            if (phase == State.FUTURE) {
+                transitions.add(new Transition(start, bookingId));
+            }
+            transitions.add(new Transition(end, bookingId));
+        }
+        return phase;
+    }
+
+    private synchronized State untrack(long bookingId) {
+        Tracked booking = tracked.remove(bookingId);
+        return booking != null ? booking.phase() : State.PAST;
+    }
+
+    private void apply(long bookerId, long ownerId, State state, long delta) {
+        if (state == null) {
+            return;
+        }
+        bookerCounts.computeIfAbsent(bookerId, id -> new AtomicLongArray(SIZE)).addAndGet(state.ordinal(), delta);
+        ownerCounts.computeIfAbsent(ownerId, id -> new AtomicLongArray(SIZE)).addAndGet(state.ordinal(), delta);
+    }
+
+    private static void load(Map<Long, AtomicLongArray> counts, Collection<BookingStateAggregate> aggregates) {
+        for (BookingStateAggregate aggregate : aggregates) {
+            AtomicLongArray userCounts = counts.computeIfAbsent(aggregate.getUserId(), id -> new AtomicLongArray(SIZE));
+            long current = aggregate.getTotal() - aggregate.getPast() - aggregate.getFuture();
+            userCounts.addAndGet(State.ALL.ordinal(), aggregate.getTotal());
+            userCounts.addAndGet(State.PAST.ordinal(), aggregate.getPast());
+            userCounts.addAndGet(State.FUTURE.ordinal(), aggregate.getFuture());
+            userCounts.addAndGet(State.CURRENT.ordinal(), current);
+            State status = stateOf(aggregate.getStatus());
+            if (status != null) {
+                userCounts.addAndGet(status.ordinal(), aggregate.getTotal());
+            }
+        }
+    }
+
+    private static Map<State, Long> toMap(AtomicLongArray counts, boolean futureIncludesCurrent) {
+        Map<State, Long> result = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            result.put(state, counts != null ? counts.get(state.ordinal()) : 0L);
+        }
+        if (futureIncludesCurrent) {
+            result.merge(State.FUTURE, result.get(State.CURRENT), Long::sum);
+        }
+        return result;
+    }
+
+    private static State phaseOf(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (!end.isAfter(now)) {
+            return State.PAST;
+        }
+        return start.isAfter(now) ? State.FUTURE : State.CURRENT;
+    }
+
+    private static State stateOf(BookingStatus status) {
+        return switch (status) {
+            case WAITING -> State.WAITING;
+            case REJECTED -> State.REJECTED;
+            case APPROVED, CANCELED, EXPIRED -> null;
+        };
+    }
+
+    private record Tracked(long bookingId, long bookerId, long ownerId,
+                           LocalDateTime start, LocalDateTime end, State phase) {
+        Tracked withPhase(State phase) {
+            return new Tracked(bookingId, bookerId, ownerId, start, end, phase);
+        }
+    }
+
+    private record Transition(LocalDateTime at, long bookingId) {
+    }
+}
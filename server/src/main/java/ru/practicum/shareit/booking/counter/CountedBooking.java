@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.counter;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля бронирования, по которым оно учтено в счётчиках состояний.
+ */
+public interface CountedBooking {
+    Long getId();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingStatusEvent;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Переводит бронирования, оставшиеся в статусе WAITING после начала срока, в статус EXPIRED
+ * (или REJECTED, см. shareit.bookings.expiry.target-status). Бронирования обрабатываются пачками
+ * по batch-size штук, каждая пачка - в отдельной короткой транзакции: с SKIP LOCKED блокируются только
+ * строки bookings, данные для событий читаются отдельным запросом без блокировок, статус меняется одним UPDATE,
+ * поэтому таблица bookings надолго не блокируется, а вещи и пользователи не блокируются вовсе.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpiryScheduler {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingStateCounters bookingStateCounters;
+    private final OutboxWriter outboxWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingStatus targetStatus;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration gracePeriod;
+    private final Counter expiredCounter;
+    private final Timer runTimer;
+
+    public BookingExpiryScheduler(BookingRepository bookingRepository,
+                                  BookingIntervalIndex bookingIntervalIndex,
+                                  BookingStateCounters bookingStateCounters,
+                                  OutboxWriter outboxWriter,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shareit.bookings.expiry.target-status:EXPIRED}") BookingStatus targetStatus,
+                                  @Value("${shareit.bookings.expiry.batch-size:500}") int batchSize,
+                                  @Value("${shareit.bookings.expiry.max-batches:100}") int maxBatches,
+                                  @Value("${shareit.bookings.expiry.grace-period:PT0S}") Duration gracePeriod) {
+        if (targetStatus != BookingStatus.EXPIRED && targetStatus != BookingStatus.REJECTED) {
+            throw new IllegalArgumentException("Просроченные бронирования можно переводить только в EXPIRED или "
+                    + "REJECTED, указан " + targetStatus);
+        }
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.bookingStateCounters = bookingStateCounters;
+        this.outboxWriter = outboxWriter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.targetStatus = targetStatus;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.gracePeriod = gracePeriod;
+        this.expiredCounter = Counter.builder("shareit.bookings.expired")
+                .description("Бронирования, не рассмотренные владельцем до начала срока")
+                .tag("status", targetStatus.name())
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("shareit.bookings.expiry.run")
+                .description("Длительность прохода по просроченным бронированиям")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiry.interval:60000}",
+            initialDelayString = "${shareit.bookings.expiry.interval:60000}")
+    public void expire() {
+        runTimer.record(() -> expire(LocalDateTime.now()));
+    }
+
+    /**
+     * Обрабатывает не больше max-batches пачек за проход, остаток достанется следующему проходу.
+     *
+     * @return количество переведённых бронирований
+     */
+    public int expire(LocalDateTime now) {
+        LocalDateTime threshold = now.minus(gracePeriod);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer expired = transactionTemplate.execute(status -> expireBatch(threshold));
+            int count = expired == null ? 0 : expired;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} бронирований, не рассмотренных до начала срока, переведены в статус {}", total,
+                    targetStatus);
+        }
+        return total;
+    }
+
+    private int expireBatch(LocalDateTime threshold) {
+        List<Long> ids = bookingRepository.lockIdsByStatusStartedBefore(BookingStatus.WAITING.name(), threshold,
+                batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Booking> bookings = bookingRepository.findWithItemAndBookerByIdIn(ids);
+        bookingRepository.updateStatuses(ids, BookingStatus.WAITING, targetStatus);
+        for (Booking booking : bookings) {
+            booking.setStatus(targetStatus);
+            booking.setVersion(booking.getVersion() + 1);
+            bookingStateCounters.changeStatus(booking, BookingStatus.WAITING);
+            bookingIntervalIndex.release(booking);
+        }
+        List<BookingDto> bookingDtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            BookingDto bookingDto = BookingMapper.mapToBookingDto(booking);
+            bookingDtos.add(bookingDto);
+            eventPublisher.publishEvent(BookingStatusEvent.of(booking, bookingDto));
+        }
+        outboxWriter.writeAll(targetStatus == BookingStatus.EXPIRED ? OutboxEventType.BOOKING_EXPIRED
+                : OutboxEventType.BOOKING_REJECTED, bookingDtos, BookingDto::getId);
+        expiredCounter.increment(bookings.size());
+        return bookings.size();
+    }
+}
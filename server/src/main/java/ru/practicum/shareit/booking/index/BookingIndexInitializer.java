@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Строит индексы бронирований до запуска веб-сервера: пока индекс интервалов пуст, проверка пересечений
+ * пропустила бы любое бронирование, поэтому запросы начинают приниматься только после построения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIndexInitializer implements SmartInitializingSingleton {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+
+    @Value("${shareit.items.availability.history-days:365}")
+    private int availabilityHistoryDays;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        log.trace("Начало построения индексов бронирований");
+        List<Booking> active = bookingRepository.findActiveEndingAfter(
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), LocalDateTime.now());
+        bookingIntervalIndex.rebuild(active);
+        List<Booking> approved = bookingRepository.findActiveEndingAfter(List.of(BookingStatus.APPROVED),
+                LocalDateTime.now().minusDays(availabilityHistoryDays));
+        itemAvailabilityIndex.rebuild(approved);
+    }
+}
@@ -0,0 +1,265 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.NotAvailableException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Индекс интервалов активных (WAITING и APPROVED) бронирований по каждой вещи.
+ * Интервалы одной вещи не пересекаются и хранятся упорядоченными по началу, поэтому
+ * проверка пересечения нового бронирования сводится к поиску ближайшего интервала слева - O(log n).
+ * Изменения по одной вещи выполняются под блокировкой её полосы, вещи из разных полос не конкурируют.
+ * Завершившиеся интервалы вытесняются при следующем бронировании вещи и периодической очисткой,
+ * поэтому индекс хранит только незавершённые бронирования, а не всю историю.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    private static final int STRIPES = 256;
+    private static final Comparator<Interval> ORDER = Comparator.comparing(Interval::start)
+            .thenComparingLong(Interval::bookingId);
+
+    private final Map<Long, NavigableSet<Interval>> intervals = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public BookingIntervalIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Проверяет, что интервал бронирования свободен, сохраняет бронирование и заносит его в индекс.
+     * Проверка и сохранение выполняются под блокировкой вещи, при откате транзакции интервал освобождается.
+     */
+    public Booking reserve(Booking booking, UnaryOperator<Booking> writer) {
+        long itemId = booking.getItem().getId();
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            pruneEnded(itemId, LocalDateTime.now());
+            if (overlaps(intervals.get(itemId), booking.getId(), booking.getStart(), booking.getEnd())) {
+                throw new NotAvailableException("Предмет с id=" + itemId + " уже забронирован на период с "
+                        + booking.getStart() + " по " + booking.getEnd());
+            }
+            Booking saved = writer.apply(booking);
+            add(itemId, saved.getId(), saved.getStart(), saved.getEnd());
+            afterRollback(() -> remove(itemId, saved.getId(), saved.getStart()));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пакетный вариант {@link #reserve}: бронирования, пересекающиеся с индексом или с ранее принятыми
+     * бронированиями пакета, отклоняются, остальные сохраняются одним вызовом writer и заносятся в индекс.
+     * Блокировки всех затронутых полос берутся в порядке возрастания номера, поэтому пакеты не взаимоблокируются.
+     *
+     * @return отклонённые бронирования
+     */
+    public List<Booking> reserveAll(List<Booking> bookings, Consumer<List<Booking>> writer) {
+        int[] stripes = bookings.stream()
+                .mapToInt(booking -> stripeOf(booking.getItem().getId()))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            bookings.forEach(booking -> pruneEnded(booking.getItem().getId(), now));
+            Map<Long, NavigableSet<Interval>> accepted = new HashMap<>();
+            List<Booking> reserved = new ArrayList<>();
+            List<Booking> rejected = new ArrayList<>();
+            for (Booking booking : bookings) {
+                long itemId = booking.getItem().getId();
+                NavigableSet<Interval> batchIntervals = accepted.computeIfAbsent(itemId, id -> new TreeSet<>(ORDER));
+                if (overlaps(intervals.get(itemId), booking.getId(), booking.getStart(), booking.getEnd())
+                        || overlaps(batchIntervals, booking.getId(), booking.getStart(), booking.getEnd())) {
+                    rejected.add(booking);
+                } else {
+                    batchIntervals.add(new Interval(-reserved.size() - 1L, booking.getStart(), booking.getEnd()));
+                    reserved.add(booking);
+                }
+            }
+            if (!reserved.isEmpty()) {
+                writer.accept(reserved);
+                for (Booking booking : reserved) {
+                    long itemId = booking.getItem().getId();
+                    long bookingId = booking.getId();
+                    LocalDateTime start = booking.getStart();
+                    add(itemId, bookingId, start, booking.getEnd());
+                    afterRollback(() -> remove(itemId, bookingId, start));
+                }
+            }
+            return rejected;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Удаляет бронирование из индекса, при откате транзакции интервал возвращается обратно.
+     */
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public void release(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        remove(itemId, bookingId, start);
+        afterRollback(() -> {
+            Lock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                add(itemId, bookingId, start, end);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Заносит незавершённые бронирования из снимка БД в индекс. Уже имеющиеся интервалы не удаляются:
+     * бронирования, зарезервированные после чтения снимка, остаются в индексе.
+     */
+    public void rebuild(Collection<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Booking booking : bookings) {
+            if (!booking.getEnd().isAfter(now)) {
+                continue;
+            }
+            long itemId = booking.getItem().getId();
+            Lock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                add(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.info("Индекс интервалов бронирований построен: {} бронирований, {} вещей",
+                bookings.size(), intervals.size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.index.prune-interval:3600000}",
+            initialDelayString = "${shareit.bookings.index.prune-interval:3600000}")
+    public void pruneEnded() {
+        int pruned = pruneEnded(LocalDateTime.now());
+        if (pruned > 0) {
+            log.debug("Из индекса интервалов удалено {} завершившихся бронирований", pruned);
+        }
+    }
+
+    /**
+     * Удаляет интервалы, завершившиеся к моменту now, у всех вещей индекса.
+     *
+     * @return число удалённых интервалов
+     */
+    int pruneEnded(LocalDateTime now) {
+        int pruned = 0;
+        for (Long itemId : intervals.keySet()) {
+            Lock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                pruned += pruneEnded(itemId, now);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return pruned;
+    }
+
+    int size() {
+        return intervals.values().stream()
+                .mapToInt(NavigableSet::size)
+                .sum();
+    }
+
+    /**
+     * Интервалы вещи не пересекаются, поэтому упорядочены и по окончанию: завершившиеся лежат в начале набора.
+     * Вызывается под блокировкой полосы вещи.
+     */
+    private int pruneEnded(long itemId, LocalDateTime now) {
+        NavigableSet<Interval> itemIntervals = intervals.get(itemId);
+        if (itemIntervals == null) {
+            return 0;
+        }
+        int pruned = 0;
+        while (!itemIntervals.isEmpty() && !itemIntervals.first().end().isAfter(now)) {
+            itemIntervals.pollFirst();
+            pruned++;
+        }
+        if (itemIntervals.isEmpty()) {
+            intervals.remove(itemId);
+        }
+        return pruned;
+    }
+
+    private static boolean overlaps(NavigableSet<Interval> itemIntervals, long bookingId,
+                                    LocalDateTime start, LocalDateTime end) {
+        if (itemIntervals == null) {
+            return false;
+        }
+        Interval previous = itemIntervals.lower(new Interval(0L, end, LocalDateTime.MIN));
+        return previous != null && previous.bookingId() != bookingId && previous.end().isAfter(start);
+    }
+
+    private void add(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        intervals.computeIfAbsent(itemId, id -> new TreeSet<>(ORDER))
+                .add(new Interval(bookingId, start, end));
+    }
+
+    private void remove(long itemId, long bookingId, LocalDateTime start) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            NavigableSet<Interval> itemIntervals = intervals.get(itemId);
+            if (itemIntervals != null) {
+                // бронирование, прочитанное из БД, может отличаться от сохранённого началом в пределах точности БД
+                if (!itemIntervals.remove(new Interval(bookingId, start, start))) {
+                    itemIntervals.removeIf(interval -> interval.bookingId() == bookingId);
+                }
+                if (itemIntervals.isEmpty()) {
+                    intervals.remove(itemId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockFor(long itemId) {
+        return locks[stripeOf(itemId)];
+    }
+
+    private static int stripeOf(long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private record Interval(long bookingId, LocalDateTime start, LocalDateTime end) {
+    }
+}
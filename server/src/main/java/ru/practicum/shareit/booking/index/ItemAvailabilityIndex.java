@@ -0,0 +1,184 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Календарь занятости вещей с точностью до дня по подтверждённым (APPROVED) бронированиям.
+ * Для каждой вещи хранится битовая карта дней в массиве long: бит i слова w соответствует дню
+ * origin + 64 * w + i от начала эпохи. Запрос занятости за месяц читает несколько слов одной вещи
+ * и не обращается к таблице бронирований.
+ */
+@Slf4j
+@Component
+public class ItemAvailabilityIndex {
+    private final Map<Long, DayBitmap> bitmaps = new ConcurrentHashMap<>();
+
+    /**
+     * Отмечает дни подтверждённого бронирования занятыми, при откате транзакции отметка снимается.
+     */
+    public void add(Booking booking) {
+        add(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public void add(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        long firstDay = firstDay(start);
+        long lastDay = lastDay(end);
+        mark(itemId, bookingId, firstDay, lastDay);
+        afterRollback(() -> unmark(itemId, bookingId));
+    }
+
+    /**
+     * Снимает отметку дней бронирования, при откате транзакции отметка возвращается.
+     */
+    public void remove(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        long firstDay = firstDay(booking.getStart());
+        long lastDay = lastDay(booking.getEnd());
+        if (unmark(itemId, bookingId)) {
+            afterRollback(() -> mark(itemId, bookingId, firstDay, lastDay));
+        }
+    }
+
+    /**
+     * Возвращает занятые дни вещи в периоде [from, to]: бит i установлен, если занят день from + i.
+     */
+    public BitSet getBookedDays(long itemId, LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        DayBitmap bitmap = bitmaps.get(itemId);
+        if (bitmap == null || last < first) {
+            return new BitSet();
+        }
+        synchronized (bitmap) {
+            return bitmap.get(first, last);
+        }
+    }
+
+    /**
+     * Отмечает дни бронирований из снимка БД, не сбрасывая уже отмеченные после чтения снимка.
+     */
+    public void rebuild(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            mark(booking.getItem().getId(), booking.getId(), firstDay(booking.getStart()), lastDay(booking.getEnd()));
+        }
+        log.info("Календарь занятости построен: {} бронирований, {} вещей", bookings.size(), bitmaps.size());
+    }
+
+    private void mark(long itemId, long bookingId, long firstDay, long lastDay) {
+        if (lastDay < firstDay) {
+            return;
+        }
+        bitmaps.compute(itemId, (id, bitmap) -> {
+            DayBitmap result = bitmap == null ? new DayBitmap() : bitmap;
+            synchronized (result) {
+                result.bookings.put(bookingId, new long[]{firstDay, lastDay});
+                result.set(firstDay, lastDay);
+            }
+            return result;
+        });
+    }
+
+    private boolean unmark(long itemId, long bookingId) {
+        boolean[] removed = new boolean[1];
+        bitmaps.computeIfPresent(itemId, (id, bitmap) -> {
+            synchronized (bitmap) {
+                long[] days = bitmap.bookings.remove(bookingId);
+                if (days == null) {
+                    return bitmap;
+                }
+                removed[0] = true;
+                if (bitmap.bookings.isEmpty()) {
+                    return null;
+                }
+                bitmap.clear(days[0], days[1]);
+                // Дни могут быть заняты и соседними бронированиями той же вещи, их отметки восстанавливаются
+                for (long[] other : bitmap.bookings.values()) {
+                    if (other[0] <= days[1] && other[1] >= days[0]) {
+                        bitmap.set(Math.max(other[0], days[0]), Math.min(other[1], days[1]));
+                    }
+                }
+                return bitmap;
+            }
+        });
+        return removed[0];
+    }
+
+    private static long firstDay(LocalDateTime start) {
+        return start.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Бронирование, заканчивающееся ровно в полночь, следующий день не занимает.
+     */
+    private static long lastDay(LocalDateTime end) {
+        return end.minusNanos(1).toLocalDate().toEpochDay();
+    }
+
+    private static final class DayBitmap {
+        private final Map<Long, long[]> bookings = new HashMap<>();
+        private long origin;
+        private long[] words = new long[0];
+
+        private void set(long first, long last) {
+            ensureCapacity(first, last);
+            for (long day = first; day <= last; day++) {
+                int bit = (int) (day - origin);
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        private void clear(long first, long last) {
+            long from = Math.max(first, origin);
+            long to = Math.min(last, origin + 64L * words.length - 1);
+            for (long day = from; day <= to; day++) {
+                int bit = (int) (day - origin);
+                words[bit >>> 6] &= ~(1L << bit);
+            }
+        }
+
+        private BitSet get(long first, long last) {
+            BitSet result = new BitSet((int) (last - first + 1));
+            long from = Math.max(first, origin);
+            long to = Math.min(last, origin + 64L * words.length - 1);
+            for (long day = from; day <= to; day++) {
+                int bit = (int) (day - origin);
+                if ((words[bit >>> 6] & 1L << bit) != 0) {
+                    result.set((int) (day - first));
+                }
+            }
+            return result;
+        }
+
+        private void ensureCapacity(long first, long last) {
+            long newOrigin = Math.floorDiv(first, 64) * 64;
+            if (words.length == 0) {
+                origin = newOrigin;
+                words = new long[(int) ((last - origin) / 64 + 1)];
+                return;
+            }
+            newOrigin = Math.min(origin, newOrigin);
+            long end = Math.max(origin + 64L * words.length, Math.floorDiv(last, 64) * 64 + 64);
+            if (newOrigin == origin && end == origin + 64L * words.length) {
+                return;
+            }
+            long[] grown = new long[(int) ((end - newOrigin) / 64)];
+            int shift = (int) ((origin - newOrigin) / 64);
+            System.arraycopy(words, 0, grown, shift, words.length);
+            origin = newOrigin;
+            words = grown;
+        }
+    }
+}
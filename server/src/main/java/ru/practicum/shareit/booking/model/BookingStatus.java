@@ -4,5 +4,6 @@ public enum BookingStatus {
     WAITING, //новое бронирование, ожидает одобрения
     APPROVED, //бронирование подтверждено владельцем
     REJECTED, //бронирование отклонено владельцем
-    CANCELED //бронирование отменено создателем
+    CANCELED, //бронирование отменено создателем
+    EXPIRED //бронирование не рассмотрено владельцем до начала срока
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Последнее начавшееся (next = false) или ближайшее будущее (next = true) подтверждённое бронирование вещи.
+ */
+public interface ItemBookingBound {
+    Long getItemId();
+
+    Long getBookingId();
+
+    Boolean getNext();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResultDto {
+    private int index;
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.item.model.dto.ItemBookingDto;
+import ru.practicum.shareit.user.model.dto.UserDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Решение владельца по нескольким бронированиям: статус меняется только у бронирований в статусе current,
+ * вещи которых принадлежат владельцу, а возвращаются изменённые бронирования в виде BookingDto.
+ * На PostgreSQL это один UPDATE ... FROM ... RETURNING без блокировок и повторного чтения сущностей.
+ * На остальных СУБД бронирования читаются JPQL-запросом с блокировкой строк и обновляются через Hibernate.
+ * СУБД определяется по диалекту Hibernate, с которым собрана фабрика EntityManager.
+ */
+@Repository
+public class BookingDecisionRepository {
+    private static final String POSTGRES_UPDATE = """
+            UPDATE bookings b SET status = :status, version = b.version + 1
+            FROM items i JOIN users o ON o.id = i.owner_id, users u
+            WHERE i.id = b.item_id AND u.id = b.booker_id
+            AND b.id IN (:ids) AND i.owner_id = :ownerId AND b.status = :current
+            RETURNING b.id, b.start_date, b.end_date,
+            i.id AS item_id, i.name AS item_name, o.name AS owner_name,
+            u.id AS booker_id, u.name AS booker_name, u.email AS booker_email
+            """;
+    private static final String JPQL_SELECT = """
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner o
+            JOIN FETCH b.booker
+            WHERE b.id IN :ids AND o.id = :ownerId AND b.status = :current
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final boolean postgres;
+
+    public BookingDecisionRepository(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                     EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * @return бронирования, статус которых изменён, уже в новом статусе
+     */
+    public List<BookingDto> updateOwnerBookingsStatus(Collection<Long> ids, long ownerId, BookingStatus current,
+                                                      BookingStatus status) {
+        return postgres
+                ? updateReturning(ids, ownerId, current, status)
+                : updateEntities(ids, ownerId, current, status);
+    }
+
+    private List<BookingDto> updateReturning(Collection<Long> ids, long ownerId, BookingStatus current,
+                                             BookingStatus status) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("ownerId", ownerId)
+                .addValue("current", current.name())
+                .addValue("status", status.name());
+        RowMapper<BookingDto> mapper = (rs, rowNum) -> new BookingDto(rs.getLong("id"),
+                rs.getTimestamp("start_date").toLocalDateTime(), rs.getTimestamp("end_date").toLocalDateTime(),
+                new ItemBookingDto(rs.getLong("item_id"), rs.getString("item_name"), rs.getString("owner_name")),
+                new UserDto(rs.getLong("booker_id"), rs.getString("booker_name"), rs.getString("booker_email")),
+                status);
+        return jdbcTemplate.query(POSTGRES_UPDATE, parameters, mapper);
+    }
+
+    private List<BookingDto> updateEntities(Collection<Long> ids, long ownerId, BookingStatus current,
+                                            BookingStatus status) {
+        List<Booking> bookings = entityManager.createQuery(JPQL_SELECT, Booking.class)
+                .setParameter("ids", ids)
+                .setParameter("ownerId", ownerId)
+                .setParameter("current", current)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        bookings.forEach(booking -> booking.setStatus(status));
+        entityManager.flush();
+        return bookings.stream()
+                .map(BookingMapper::mapToBookingDto)
+                .toList();
+    }
+}
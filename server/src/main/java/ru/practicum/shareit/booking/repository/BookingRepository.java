@@ -1,86 +1,274 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.counter.BookingStateAggregate;
+import ru.practicum.shareit.booking.counter.CountedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingBound;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
     @Query("""
             SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
             WHERE b.booker.id = :bookerId
-            ORDER BY b.end DESC
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findAllByBookerId(@Param("bookerId") Long bookerId, Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findAllByBookerId(@Param("bookerId") Long bookerId);
+    List<Booking> findAllByBookerIdAfterCursor(@Param("bookerId") Long bookerId,
+                                               @Param("cursorEnd") LocalDateTime cursorEnd,
+                                               @Param("cursorId") Long cursorId,
+                                               Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
             WHERE b.booker.id = :bookerId AND b.end <= :date
-            ORDER BY b.end DESC
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findPastByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date);
+    List<Booking> findPastByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date, Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.booker.id = :bookerId AND b.start >= :date
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.end <= :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findFutureByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date);
+    List<Booking> findPastByBookerIdAfterCursor(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date,
+                                                @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                @Param("cursorId") Long cursorId,
+                                                Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.start >= :date AND b.end > :date
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findFutureByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date,
+                                       Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.start >= :date AND b.end > :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findFutureByBookerIdAfterCursor(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date,
+                                                  @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
             WHERE b.booker.id = :bookerId AND b.start <= :date AND b.end >= :date
-            ORDER BY b.end DESC
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date);
+    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date,
+                                        Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.booker.id = :bookerId AND status = :status
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.start <= :date AND b.end >= :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findCurrentByBookerIdAfterCursor(@Param("bookerId") Long bookerId, @Param("date") LocalDateTime date,
+                                                   @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.status = :status
+            ORDER BY b.end DESC, b.id DESC
             """)
     List<Booking> findWaitingOrRejectedByBookerId(@Param("bookerId") Long bookerId,
-                                                  @Param("status") String status);
+                                                  @Param("status") BookingStatus status, Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.item.owner.id = :ownerId
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.booker.id = :bookerId AND b.status = :status
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerId(@Param("ownerId") Long ownerId);
+    List<Booking> findWaitingOrRejectedByBookerIdAfterCursor(@Param("bookerId") Long bookerId,
+                                                             @Param("status") BookingStatus status,
+                                                             @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                             @Param("cursorId") Long cursorId,
+                                                             Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.item.owner.id = :ownerId AND b.end <= :date
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findPastByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date);
+    List<Booking> findAllByOwnerId(@Param("ownerId") Long ownerId, Limit limit);
 
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findAllByOwnerIdAfterCursor(@Param("ownerId") Long ownerId,
+                                              @Param("cursorEnd") LocalDateTime cursorEnd,
+                                              @Param("cursorId") Long cursorId,
+                                              Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.item.owner.id = :ownerId AND b.end >= :date
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.end <= :date
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findFutureByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date);
+    List<Booking> findPastByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date, Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.item.owner.id = :ownerId AND b.start <= :date AND b.end >= :date
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.end <= :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
             """)
-    List<Booking> findCurrentByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date);
+    List<Booking> findPastByOwnerIdAfterCursor(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date,
+                                               @Param("cursorEnd") LocalDateTime cursorEnd,
+                                               @Param("cursorId") Long cursorId,
+                                               Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.item.owner.id = :ownerId AND status = :status
-            ORDER BY b.end DESC
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.end >= :date
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findFutureByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date, Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.end >= :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findFutureByOwnerIdAfterCursor(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date,
+                                                 @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.start <= :date AND b.end >= :date
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findCurrentByOwnerId(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date, Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.start <= :date AND b.end >= :date
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findCurrentByOwnerIdAfterCursor(@Param("ownerId") Long ownerId, @Param("date") LocalDateTime date,
+                                                  @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.status = :status
+            ORDER BY b.end DESC, b.id DESC
             """)
     List<Booking> findWaitingOrRejectedByOwnerId(@Param("ownerId") Long ownerId,
-                                                  @Param("status") String status);
+                                                 @Param("status") BookingStatus status, Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId AND b.status = :status
+            AND b.end <= :cursorEnd AND (b.end < :cursorEnd OR b.id < :cursorId)
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    List<Booking> findWaitingOrRejectedByOwnerIdAfterCursor(@Param("ownerId") Long ownerId,
+                                                            @Param("status") BookingStatus status,
+                                                            @Param("cursorEnd") LocalDateTime cursorEnd,
+                                                            @Param("cursorId") Long cursorId,
+                                                            Limit limit);
 
     @Query("""
             SELECT b FROM Booking b
@@ -92,4 +280,140 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> getLastBookingByBookerIdAndItemId(@Param("bookerId") Long bookerId,
                                                     @Param("itemId") Long itemId,
                                                     @Param("date") LocalDateTime date);
+
+    /**
+     * Для каждой вещи из itemIds возвращает не более двух строк: последнее начавшееся к моменту now
+     * и ближайшее будущее подтверждённое бронирование.
+     */
+    @Query(value = """
+            SELECT ranked.item_id AS itemId, ranked.id AS bookingId, ranked.next AS next
+            FROM (
+                SELECT b.item_id, b.id, b.start_date > :now AS next,
+                       ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_date > :now
+                                          ORDER BY CASE WHEN b.start_date > :now THEN b.start_date END,
+                                                   b.start_date DESC) AS rn
+                FROM bookings b
+                WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED'
+            ) ranked
+            WHERE ranked.rn = 1
+            """, nativeQuery = true)
+    List<ItemBookingBound> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT b FROM Booking b
+            WHERE b.status IN :statuses AND b.end > :date
+            """)
+    List<Booking> findActiveEndingAfter(@Param("statuses") Collection<BookingStatus> statuses,
+                                        @Param("date") LocalDateTime date);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.end > :date
+            """)
+    List<Booking> findEndingAfter(@Param("date") LocalDateTime date);
+
+    @Query("""
+            SELECT b.id AS id, b.booker.id AS bookerId, i.owner.id AS ownerId, b.status AS status,
+            b.start AS startDate, b.end AS endDate
+            FROM Booking b
+            JOIN b.item i
+            WHERE b.booker.id = :userId OR i.owner.id = :userId
+            """)
+    List<CountedBooking> findCountedByUserId(@Param("userId") long userId);
+
+    @Query("""
+            SELECT b.id AS id, b.booker.id AS bookerId, i.owner.id AS ownerId, b.status AS status,
+            b.start AS startDate, b.end AS endDate
+            FROM Booking b
+            JOIN b.item i
+            WHERE i.id = :itemId
+            """)
+    List<CountedBooking> findCountedByItemId(@Param("itemId") long itemId);
+
+    @Query("""
+            SELECT b.booker.id AS userId, b.status AS status, COUNT(b) AS total,
+            SUM(CASE WHEN b.end <= :date THEN 1 ELSE 0 END) AS past,
+            SUM(CASE WHEN b.start > :date THEN 1 ELSE 0 END) AS future
+            FROM Booking b
+            GROUP BY b.booker.id, b.status
+            """)
+    List<BookingStateAggregate> countStatesByBooker(@Param("date") LocalDateTime date);
+
+    @Query("""
+            SELECT i.owner.id AS userId, b.status AS status, COUNT(b) AS total,
+            SUM(CASE WHEN b.end <= :date THEN 1 ELSE 0 END) AS past,
+            SUM(CASE WHEN b.start > :date THEN 1 ELSE 0 END) AS future
+            FROM Booking b
+            JOIN b.item i
+            GROUP BY i.owner.id, b.status
+            """)
+    List<BookingStateAggregate> countStatesByOwner(@Param("date") LocalDateTime date);
+
+    /**
+     * Идентификаторы пачки бронирований в статусе status, начавшихся до date. Блокируются только строки
+     * bookings и с SKIP LOCKED, поэтому фоновая обработка не ждёт строк, которые сейчас меняют пользователи,
+     * и не блокирует вещи и пользователей.
+     */
+    @Query(value = """
+            SELECT id FROM bookings
+            WHERE status = :status AND start_date < :date
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockIdsByStatusStartedBefore(@Param("status") String status, @Param("date") LocalDateTime date,
+                                            @Param("limit") int limit);
+
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE b.id IN :ids
+            ORDER BY b.id
+            """)
+    List<Booking> findWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Booking b SET b.status = :status, b.version = b.version + 1
+            WHERE b.id IN :ids AND b.status = :current
+            """)
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("current") BookingStatus current,
+                       @Param("status") BookingStatus status);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findWithItemAndBookerById(long id);
+
+    /**
+     * Условный переход статуса одним UPDATE без блокировок: строка меняется, только если бронирование
+     * всё ещё в статусе current. Версия увеличивается, чтобы изменения через сущность получили конфликт.
+     *
+     * @return 1, если статус изменён, 0 - если бронирование уже рассмотрено
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Booking b SET b.status = :status, b.version = b.version + 1
+            WHERE b.id = :id AND b.status = :current
+            """)
+    int updateStatus(@Param("id") long id, @Param("current") BookingStatus current,
+                     @Param("status") BookingStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT b FROM Booking b
+            JOIN FETCH b.item i
+            JOIN FETCH i.owner
+            JOIN FETCH b.booker
+            WHERE i.owner.id = :ownerId
+            ORDER BY b.end DESC, b.id DESC
+            """)
+    Stream<Booking> streamAllByOwnerId(@Param("ownerId") Long ownerId);
 }
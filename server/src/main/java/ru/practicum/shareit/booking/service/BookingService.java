@@ -1,19 +1,39 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(BookingCreateDto bookingCreateDto, long bookerId);
 
+    List<BookingBatchResultDto> createBookings(List<BookingCreateDto> bookingCreateDtos, long bookerId);
+
     BookingDto itemOwnerBookingSolution(long bookingId, long ownerId, Boolean approved);
 
+    List<BookingDto> itemOwnerBookingsSolution(Collection<Long> bookingIds, long ownerId, Boolean approved);
+
     BookingDto getBookingById(long bookingId, long userId);
 
-    Collection<BookingDto> getAllUserBookings(long bookerId, State state);
+    Collection<BookingDto> getAllUserBookings(long bookerId, State state, LocalDateTime cursorEnd, Long cursorId,
+                                              int size);
+
+    Collection<BookingDto> getOwnerItemsBookings(long ownerId, State state, LocalDateTime cursorEnd, Long cursorId,
+                                                 int size);
+
+    Map<State, Long> getUserBookingCounts(long bookerId);
+
+    Map<State, Long> getOwnerBookingCounts(long ownerId);
+
+    void exportOwnerBookings(long ownerId, Consumer<BookingDto> action);
 
-    Collection<BookingDto> getOwnerItemsBookings(long ownerId, State state);
+    SseEmitter subscribeToStatusChanges(long userId);
 }
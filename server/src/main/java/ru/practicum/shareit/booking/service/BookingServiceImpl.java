@@ -1,28 +1,56 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemAvailabilityIndex;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.repository.BookingDecisionRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingStatusEvent;
+import ru.practicum.shareit.booking.stream.BookingStatusSubscribers;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.InternalServerErrorException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.mapper.BookingMapper.mapToBooking;
 import static ru.practicum.shareit.booking.mapper.BookingMapper.mapToBookingDto;
@@ -32,12 +60,32 @@ import static ru.practicum.shareit.booking.mapper.BookingMapper.mapToBookingDto;
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     @Autowired
     private final BookingRepository bookingRepository;
     @Autowired
     private final ItemRepository itemRepository;
     @Autowired
     private final UserRepository userRepository;
+    @Autowired
+    private final BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private final BookingDecisionRepository bookingDecisionRepository;
+    @Autowired
+    private final EntityManager entityManager;
+    @Autowired
+    private final BookingStateCounters bookingStateCounters;
+
+    @Autowired
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+
+    @Autowired
+    private final OutboxWriter outboxWriter;
+    @Autowired
+    private final BookingStatusSubscribers bookingStatusSubscribers;
+    @Autowired
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -53,24 +101,149 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking booking = mapToBooking(bookingCreateDto, item, user);
         booking.setStatus(BookingStatus.WAITING);
-        booking = bookingRepository.save(booking);
+        booking = bookingIntervalIndex.reserve(booking, bookingRepository::save);
+        bookingStateCounters.add(booking);
+        BookingDto bookingDto = mapToBookingDto(booking);
+        outboxWriter.write(OutboxEventType.BOOKING_CREATED, bookingDto.getId(), bookingDto);
         log.info("Бронирование {} создано", booking);
-        return mapToBookingDto(booking);
+        return bookingDto;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(List<BookingCreateDto> bookingCreateDtos, long bookerId) {
+        log.trace("Начало пакетного создания {} бронирований", bookingCreateDtos.size());
+        User user = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Пользователя с id=" + bookerId + " не существует"));
+        Set<Long> itemIds = bookingCreateDtos.stream()
+                .map(BookingCreateDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingCreateDtos.size()];
+        Map<Booking, Integer> positions = new IdentityHashMap<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingCreateDtos.size(); i++) {
+            BookingCreateDto bookingCreateDto = bookingCreateDtos.get(i);
+            Item item = items.get(bookingCreateDto.getItemId());
+            if (item == null) {
+                results[i] = new BookingBatchResultDto(i, HttpStatus.NOT_FOUND.value(), null,
+                        "Предмета с id=" + bookingCreateDto.getItemId() + " не существует");
+            } else if (!item.isAvailable()) {
+                results[i] = new BookingBatchResultDto(i, HttpStatus.BAD_REQUEST.value(), null,
+                        "Предмет с id=" + item.getId() + " недоступен для бронирования");
+            } else {
+                Booking booking = mapToBooking(bookingCreateDto, item, user);
+                booking.setStatus(BookingStatus.WAITING);
+                positions.put(booking, i);
+                bookings.add(booking);
+            }
+        }
+        List<Booking> rejected = bookingIntervalIndex.reserveAll(bookings, bookingRepository::saveAll);
+        for (Booking booking : rejected) {
+            int i = positions.remove(booking);
+            results[i] = new BookingBatchResultDto(i, HttpStatus.BAD_REQUEST.value(), null,
+                    "Предмет с id=" + booking.getItem().getId() + " уже забронирован на период с "
+                            + booking.getStart() + " по " + booking.getEnd());
+        }
+        List<BookingDto> created = new ArrayList<>(positions.size());
+        positions.forEach((booking, i) -> {
+            bookingStateCounters.add(booking);
+            BookingDto bookingDto = mapToBookingDto(booking);
+            created.add(bookingDto);
+            results[i] = new BookingBatchResultDto(i, HttpStatus.CREATED.value(), bookingDto, null);
+        });
+        outboxWriter.writeAll(OutboxEventType.BOOKING_CREATED, created, BookingDto::getId);
+        log.info("Пакетно создано {} бронирований из {}", positions.size(), bookingCreateDtos.size());
+        return Arrays.asList(results);
     }
 
     @Override
     @Transactional
     public BookingDto itemOwnerBookingSolution(long bookingId, long ownerId, Boolean approved) {
         log.trace("Начало обновления бронирования с id {}", bookingId);
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирования с id=" + bookingId + " не существует"));
         if (booking.getItem().getOwner().getId() != ownerId) {
             throw new NotAvailableException("Изменить статус бронирования может только владелец вещи");
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        booking = bookingRepository.save(booking);
+        BookingStatus previous = booking.getStatus();
+        if (previous == BookingStatus.EXPIRED) {
+            throw new NotAvailableException("Бронирование с id=" + bookingId
+                    + " просрочено, изменить его статус нельзя");
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (previous == BookingStatus.WAITING) {
+            changeWaitingStatus(booking, status);
+        } else {
+            booking.setStatus(status);
+            if (!approved) {
+                bookingIntervalIndex.release(booking);
+                booking = saveVersioned(booking);
+            } else if (previous == BookingStatus.APPROVED) {
+                booking = saveApproved(booking);
+            } else {
+                booking = bookingIntervalIndex.reserve(booking, this::saveApproved);
+            }
+        }
+        bookingStateCounters.changeStatus(booking, previous);
+        if (approved && previous != BookingStatus.APPROVED) {
+            itemAvailabilityIndex.add(booking);
+        } else if (!approved && previous == BookingStatus.APPROVED) {
+            itemAvailabilityIndex.remove(booking);
+        }
+        BookingDto bookingDto = mapToBookingDto(booking);
+        if (previous != status) {
+            outboxWriter.write(approved ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED,
+                    bookingDto.getId(), bookingDto);
+            eventPublisher.publishEvent(BookingStatusEvent.of(booking, bookingDto));
+        }
         log.info("Статус бронирования {} обновлён", booking);
-        return mapToBookingDto(booking);
+        return bookingDto;
+    }
+
+    /**
+     * Решение владельца сразу по нескольким бронированиям в статусе WAITING. Статус меняется одним UPDATE
+     * с проверкой владельца через вещь, а ответ собирается из строк, возвращённых тем же запросом.
+     * Чужие, несуществующие и уже рассмотренные бронирования пропускаются.
+     */
+    @Override
+    @Transactional
+    public List<BookingDto> itemOwnerBookingsSolution(Collection<Long> bookingIds, long ownerId, Boolean approved) {
+        log.trace("Начало обновления {} бронирований владельцем с id {}", bookingIds.size(), ownerId);
+        if (bookingIds.isEmpty()) {
+            return List.of();
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<BookingDto> bookingDtos;
+        try {
+            // UPDATE идёт мимо Hibernate: несохранённые изменения сбрасываются до него, а устаревшие
+            // после него сущности бронирований убираются из контекста
+            entityManager.flush();
+            bookingDtos = bookingDecisionRepository.updateOwnerBookingsStatus(bookingIds, ownerId,
+                    BookingStatus.WAITING, status);
+            entityManager.clear();
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new NotAvailableException("Подтверждаемые бронирования пересекаются с уже подтверждёнными");
+            }
+            throw e;
+        }
+        for (BookingDto bookingDto : bookingDtos) {
+            long itemId = bookingDto.getItem().getId();
+            long bookerId = bookingDto.getBooker().getId();
+            bookingStateCounters.changeStatus(bookerId, ownerId, BookingStatus.WAITING, status);
+            if (approved) {
+                itemAvailabilityIndex.add(itemId, bookingDto.getId(), bookingDto.getStart(), bookingDto.getEnd());
+            } else {
+                bookingIntervalIndex.release(itemId, bookingDto.getId(), bookingDto.getStart(), bookingDto.getEnd());
+            }
+            eventPublisher.publishEvent(new BookingStatusEvent(bookerId, ownerId, bookingDto));
+        }
+        outboxWriter.writeAll(approved ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED,
+                bookingDtos, BookingDto::getId);
+        log.info("Статус {} бронирований обновлён на {}", bookingDtos.size(), status);
+        return bookingDtos;
     }
 
     @Override
@@ -87,88 +260,207 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public Collection<BookingDto> getAllUserBookings(long bookerId, State state) {
+    public Collection<BookingDto> getAllUserBookings(long bookerId, State state, LocalDateTime cursorEnd,
+                                                     Long cursorId, int size) {
         log.trace("Получение данных обо всех бронированиях пользователя с id {} со статусом бронирования {}",
                 bookerId, state);
         User user = userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + bookerId + " не существует"));
-        List<BookingDto> bookings;
+        List<Booking> page;
         LocalDateTime now = LocalDateTime.now();
+        Limit limit = Limit.of(size);
+        boolean firstPage = isFirstPage(cursorEnd, cursorId);
         switch (state) {
-            case ALL -> {
-                bookings = bookingRepository.findAllByBookerId(bookerId).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case PAST -> {
-                bookings = bookingRepository.findPastByBookerId(bookerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case FUTURE -> {
-                bookings = bookingRepository.findFutureByBookerId(bookerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case CURRENT -> {
-                bookings = bookingRepository.findCurrentByBookerId(bookerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
+            case ALL -> page = firstPage
+                    ? bookingRepository.findAllByBookerId(bookerId, limit)
+                    : bookingRepository.findAllByBookerIdAfterCursor(bookerId, cursorEnd, cursorId, limit);
+            case PAST -> page = firstPage
+                    ? bookingRepository.findPastByBookerId(bookerId, now, limit)
+                    : bookingRepository.findPastByBookerIdAfterCursor(bookerId, now, cursorEnd, cursorId, limit);
+            case FUTURE -> page = firstPage
+                    ? bookingRepository.findFutureByBookerId(bookerId, now, limit)
+                    : bookingRepository.findFutureByBookerIdAfterCursor(bookerId, now, cursorEnd, cursorId, limit);
+            case CURRENT -> page = firstPage
+                    ? bookingRepository.findCurrentByBookerId(bookerId, now, limit)
+                    : bookingRepository.findCurrentByBookerIdAfterCursor(bookerId, now, cursorEnd, cursorId, limit);
             case WAITING, REJECTED -> {
-                bookings = bookingRepository.findWaitingOrRejectedByBookerId(bookerId, state.toString()).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
+                BookingStatus status = BookingStatus.valueOf(state.name());
+                page = firstPage
+                        ? bookingRepository.findWaitingOrRejectedByBookerId(bookerId, status, limit)
+                        : bookingRepository.findWaitingOrRejectedByBookerIdAfterCursor(bookerId, status, cursorEnd,
+                        cursorId, limit);
             }
             default -> {
                 throw new InternalServerErrorException("Ошибка сервера");
             }
         }
+        List<BookingDto> bookings = page.stream()
+                .map(BookingMapper::mapToBookingDto)
+                .toList();
         log.info("Получены данные обо всех бронированиях пользователя с id {} со статусом бронирования {} - {}",
                 bookerId, state, bookings);
         return bookings;
     }
 
     @Override
-    public Collection<BookingDto> getOwnerItemsBookings(long ownerId, State state) {
+    public Collection<BookingDto> getOwnerItemsBookings(long ownerId, State state, LocalDateTime cursorEnd,
+                                                        Long cursorId, int size) {
         log.info("Получение данных обо всех бронированиях всех вещей пользователя с id {} со статусом бронирования {}",
                 ownerId, state);
         User user = userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + ownerId + " не существует"));
-        List<BookingDto> bookings;
+        List<Booking> page;
         LocalDateTime now = LocalDateTime.now();
+        Limit limit = Limit.of(size);
+        boolean firstPage = isFirstPage(cursorEnd, cursorId);
         switch (state) {
-            case ALL -> {
-                bookings = bookingRepository.findAllByOwnerId(ownerId).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case PAST -> {
-                bookings = bookingRepository.findPastByOwnerId(ownerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case FUTURE -> {
-                bookings = bookingRepository.findFutureByOwnerId(ownerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
-            case CURRENT -> {
-                bookings = bookingRepository.findCurrentByOwnerId(ownerId, now).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
-            }
+            case ALL -> page = firstPage
+                    ? bookingRepository.findAllByOwnerId(ownerId, limit)
+                    : bookingRepository.findAllByOwnerIdAfterCursor(ownerId, cursorEnd, cursorId, limit);
+            case PAST -> page = firstPage
+                    ? bookingRepository.findPastByOwnerId(ownerId, now, limit)
+                    : bookingRepository.findPastByOwnerIdAfterCursor(ownerId, now, cursorEnd, cursorId, limit);
+            case FUTURE -> page = firstPage
+                    ? bookingRepository.findFutureByOwnerId(ownerId, now, limit)
+                    : bookingRepository.findFutureByOwnerIdAfterCursor(ownerId, now, cursorEnd, cursorId, limit);
+            case CURRENT -> page = firstPage
+                    ? bookingRepository.findCurrentByOwnerId(ownerId, now, limit)
+                    : bookingRepository.findCurrentByOwnerIdAfterCursor(ownerId, now, cursorEnd, cursorId, limit);
             case WAITING, REJECTED -> {
-                bookings = bookingRepository.findWaitingOrRejectedByOwnerId(ownerId, state.toString()).stream()
-                        .map(BookingMapper::mapToBookingDto)
-                        .toList();
+                BookingStatus status = BookingStatus.valueOf(state.name());
+                page = firstPage
+                        ? bookingRepository.findWaitingOrRejectedByOwnerId(ownerId, status, limit)
+                        : bookingRepository.findWaitingOrRejectedByOwnerIdAfterCursor(ownerId, status, cursorEnd,
+                        cursorId, limit);
             }
             default -> {
                 throw new InternalServerErrorException("Ошибка сервера");
             }
         }
+        List<BookingDto> bookings = page.stream()
+                .map(BookingMapper::mapToBookingDto)
+                .toList();
         log.info("Получены данные обо всех бронированиях всех вещей пользователя с id {} со статусом бронирования {} - {}",
                 ownerId, state, bookings);
         return bookings;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<State, Long> getUserBookingCounts(long bookerId) {
+        log.trace("Получение количества бронирований пользователя с id {} по состояниям", bookerId);
+        userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Пользователя с id=" + bookerId + " не существует"));
+        return bookingStateCounters.getBookerCounts(bookerId);
+    }
+
+    @Override
+    public Map<State, Long> getOwnerBookingCounts(long ownerId) {
+        log.trace("Получение количества бронирований вещей пользователя с id {} по состояниям", ownerId);
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException("Пользователя с id=" + ownerId + " не существует"));
+        return bookingStateCounters.getOwnerCounts(ownerId);
+    }
+
+    /**
+     * Передаёт все бронирования вещей владельца в action по одному, не собирая их в список.
+     * Строки читаются из курсора порциями по {@link BookingRepository#EXPORT_FETCH_SIZE},
+     * контекст персистентности очищается после каждой порции, поэтому память не растёт с историей.
+     */
+    @Override
+    public void exportOwnerBookings(long ownerId, Consumer<BookingDto> action) {
+        log.trace("Начало выгрузки бронирований вещей пользователя с id {}", ownerId);
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException("Пользователя с id=" + ownerId + " не существует"));
+        long count = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                action.accept(mapToBookingDto(iterator.next()));
+                if (++count % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Выгружено {} бронирований вещей пользователя с id {}", count, ownerId);
+    }
+
+    @Override
+    public SseEmitter subscribeToStatusChanges(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователя с id=" + userId + " не существует");
+        }
+        return bookingStatusSubscribers.subscribe(userId);
+    }
+
+    /**
+     * Переход из WAITING выполняется условным UPDATE без блокировок: из параллельных решений по одному
+     * бронированию применяется первое, остальные получают конфликт. Бронирование после UPDATE отсоединено
+     * от контекста, поэтому статус и версия проставляются в нём вручную.
+     */
+    private void changeWaitingStatus(Booking booking, BookingStatus status) {
+        int updated;
+        try {
+            updated = bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new NotAvailableException("Предмет с id=" + booking.getItem().getId()
+                        + " уже забронирован на период с " + booking.getStart() + " по " + booking.getEnd());
+            }
+            throw e;
+        }
+        if (updated == 0) {
+            throw new AlreadyExistsException("Статус бронирования с id=" + booking.getId() + " уже изменён");
+        }
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        if (status == BookingStatus.REJECTED) {
+            bookingIntervalIndex.release(booking);
+        }
+    }
+
+    /**
+     * Сохраняет подтверждённое бронирование сразу в БД: в PostgreSQL пересечение подтверждённых бронирований
+     * одной вещи запрещено ограничением-исключением на bookings, нарушение приходит с SQLState 23P01.
+     * В H2 ограничения нет, там пересечения отсекает {@link BookingIntervalIndex}.
+     */
+    private Booking saveApproved(Booking booking) {
+        try {
+            return saveVersioned(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new NotAvailableException("Предмет с id=" + booking.getItem().getId()
+                        + " уже забронирован на период с " + booking.getStart() + " по " + booking.getEnd());
+            }
+            throw e;
+        }
+    }
+
+    private Booking saveVersioned(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new AlreadyExistsException("Бронирование с id=" + booking.getId()
+                    + " было изменено параллельно, повторите запрос");
+        }
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Первая страница читается без курсора, следующие - после (cursorEnd, cursorId): у каждого варианта свой
+     * запрос, чтобы план не зависел от null-параметров. Курсор без одной из частей отклоняется.
+     */
+    private static boolean isFirstPage(LocalDateTime cursorEnd, Long cursorId) {
+        if ((cursorEnd == null) != (cursorId == null)) {
+            throw new NotAvailableException("Параметры cursorEnd и cursorId задаются только вместе");
+        }
+        return cursorEnd == null;
+    }
+}
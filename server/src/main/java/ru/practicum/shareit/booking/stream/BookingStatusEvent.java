@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.stream;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+
+/**
+ * Изменение статуса бронирования, доставляемое подписчикам после фиксации транзакции.
+ */
+public record BookingStatusEvent(long bookerId, long ownerId, BookingDto booking) {
+
+    public static BookingStatusEvent of(Booking booking, BookingDto bookingDto) {
+        return new BookingStatusEvent(booking.getBooker().getId(), booking.getItem().getOwner().getId(), bookingDto);
+    }
+}
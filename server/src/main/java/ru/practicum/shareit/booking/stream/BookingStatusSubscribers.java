@@ -0,0 +1,241 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реестр SSE-подписок на изменения статусов бронирований. Подписки хранятся по id пользователя,
+ * событие получают и бронирующий, и владелец вещи. Открытое соединение не занимает поток сервера:
+ * эмиттер лишь держит асинхронный запрос.
+ * <p>
+ * Запись в эмиттеры выполняется ограниченным пулом отправки, поэтому подтверждение бронирования
+ * и heartbeat только ставят сообщение в очередь подписки и не ждут медленного клиента. Подписка
+ * отключается, если её очередь превысила max-pending сообщений, если пул отправки переполнен
+ * или если текущая запись в неё длится дольше write-timeout.
+ */
+@Slf4j
+@Component
+public class BookingStatusSubscribers {
+    static final String EVENT_NAME = "booking-status";
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final long timeout;
+    private final long writeTimeout;
+    private final int maxPending;
+    private final Executor sender;
+
+    @Autowired
+    public BookingStatusSubscribers(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${shareit.bookings.stream.timeout:1800000}") long timeout,
+                                    @Value("${shareit.bookings.stream.write-timeout:5000}") long writeTimeout,
+                                    @Value("${shareit.bookings.stream.max-pending:32}") int maxPending,
+                                    @Value("${shareit.bookings.stream.sender-threads:4}") int senderThreads,
+                                    @Value("${shareit.bookings.stream.sender-queue:10000}") int senderQueue) {
+        this(objectMapper, meterRegistry, timeout, writeTimeout, maxPending,
+                new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(senderQueue), Thread.ofPlatform().name("booking-stream-", 0)
+                        .daemon().factory()));
+    }
+
+    BookingStatusSubscribers(ObjectMapper objectMapper, MeterRegistry meterRegistry, long timeout, long writeTimeout,
+                             int maxPending, Executor sender) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.writeTimeout = writeTimeout;
+        this.maxPending = maxPending;
+        this.sender = sender;
+        Gauge.builder("shareit.bookings.stream.subscribers", count, AtomicInteger::get)
+                .description("Открытые подписки на изменения статусов бронирований")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter);
+        subscribers.compute(userId, (id, subscriptions) -> {
+            Set<Subscription> result = subscriptions == null ? ConcurrentHashMap.newKeySet() : subscriptions;
+            result.add(subscription);
+            return result;
+        });
+        count.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        log.debug("Пользователь с id {} подписался на изменения статусов бронирований", userId);
+        return emitter;
+    }
+
+    /**
+     * Рассылает изменение статуса только после фиксации транзакции: отменённое решение подписчики не увидят.
+     * Вне транзакции событие рассылается сразу. Событие сериализуется один раз для всех подписок.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusEvent event) {
+        BookingDto booking = event.booking();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(booking);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Set<DataWithMediaType> message = SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(booking.getId() + ":" + booking.getStatus())
+                .data(json)
+                .build();
+        send(event.bookerId(), message);
+        if (event.ownerId() != event.bookerId()) {
+            send(event.ownerId(), message);
+        }
+    }
+
+    /**
+     * Комментарий-пустышка не даёт прокси закрыть простаивающее соединение и выявляет отключившихся клиентов.
+     * Заодно отключаются подписки, запись в которые зависла дольше write-timeout.
+     */
+    @Scheduled(fixedDelayString = "${shareit.bookings.stream.heartbeat-interval:15000}",
+            initialDelayString = "${shareit.bookings.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> message = SseEmitter.event().comment("heartbeat").build();
+        for (Long userId : subscribers.keySet()) {
+            send(userId, message);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return count.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void send(long userId, Set<DataWithMediaType> message) {
+        Set<Subscription> subscriptions = subscribers.get(userId);
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            long writeStarted = subscription.writeStarted.get();
+            if (writeStarted != 0 && System.nanoTime() - writeStarted > TimeUnit.MILLISECONDS.toNanos(writeTimeout)) {
+                drop(subscription, "запись длится дольше " + writeTimeout + " мс");
+            } else if (subscription.pendingCount.incrementAndGet() > maxPending) {
+                drop(subscription, "в очереди больше " + maxPending + " сообщений");
+            } else {
+                subscription.pending.add(message);
+                schedule(subscription);
+            }
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                subscription.scheduled.set(false);
+                drop(subscription, "пул отправки переполнен");
+            }
+        }
+    }
+
+    /**
+     * Сообщения одной подписки пишутся по очереди одним потоком пула, чтобы сохранить их порядок.
+     */
+    private void drain(Subscription subscription) {
+        Set<DataWithMediaType> message;
+        while (!subscription.dropped.get() && (message = subscription.pending.poll()) != null) {
+            subscription.pendingCount.decrementAndGet();
+            subscription.writeStarted.set(System.nanoTime());
+            try {
+                subscription.emitter.send(message);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписка пользователя с id {} закрыта: {}", subscription.userId, e.getMessage());
+                unsubscribe(subscription);
+            } finally {
+                subscription.writeStarted.set(0);
+            }
+        }
+        subscription.scheduled.set(false);
+        if (!subscription.dropped.get() && !subscription.pending.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    /**
+     * Медленная подписка только удаляется из реестра: завершать эмиттер из этого потока нельзя,
+     * так как он может ждать ту же блокировку, что и зависшая запись. Соединение закроет контейнер
+     * по таймауту записи или асинхронного запроса.
+     */
+    private void drop(Subscription subscription, String reason) {
+        if (unsubscribe(subscription)) {
+            log.warn("Подписка пользователя с id {} отключена: {}", subscription.userId, reason);
+        }
+    }
+
+    private boolean unsubscribe(Subscription subscription) {
+        subscription.dropped.set(true);
+        subscription.pending.clear();
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscription.userId, (id, subscriptions) -> {
+            if (subscriptions.remove(subscription)) {
+                removed.set(true);
+                count.decrementAndGet();
+            }
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        return removed.get();
+    }
+
+    private static final class Subscription {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private final AtomicLong writeStarted = new AtomicLong();
+
+        private Subscription(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCompletion;
+
+/**
+ * Кэш карточек вещей с комментариями без данных о бронированиях, которые зависят от времени и от того,
+ * кто смотрит вещь. Карточка загружается при первом чтении, загрузка одной вещи выполняется один раз
+ * даже при одновременных запросах. Сброс записи ждёт завершения идущей загрузки, а после фиксации
+ * транзакции выполняется повторно, поэтому прочитанная до фиксации карточка в кэше не остаётся.
+ * Статистика попаданий публикуется в метриках cache.gets{cache=itemDetails}.
+ */
+@Slf4j
+@Component
+public class ItemDetailsCache {
+    static final String CACHE_NAME = "itemDetails";
+
+    private final Cache<Long, ItemDto> cache;
+
+    public ItemDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${shareit.items.details-cache.enabled:true}") boolean enabled,
+                            @Value("${shareit.items.details-cache.max-size:10000}") long maxSize,
+                            @Value("${shareit.items.details-cache.expire-after-write:PT5M}")
+                            Duration expireAfterWrite) {
+        if (!enabled) {
+            cache = null;
+            log.info("Кэш карточек вещей отключён");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Копия карточки вещи из кэша, при отсутствии карточка загружается через loader.
+     * Исключение загрузки передаётся вызывающему, а в кэш ничего не попадает.
+     */
+    public ItemDto get(long itemId, LongFunction<ItemDto> loader) {
+        if (cache == null) {
+            return loader.apply(itemId);
+        }
+        return copy(cache.get(itemId, id -> snapshot(loader.apply(id))));
+    }
+
+    public void invalidate(long itemId) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(itemId);
+        afterCompletion(() -> cache.invalidate(itemId));
+    }
+
+    /**
+     * Сбрасывает все карточки, например после удаления или переименования пользователя, чьи вещи
+     * или комментарии могут быть в кэше.
+     */
+    public void invalidateAll() {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidateAll();
+        afterCompletion(cache::invalidateAll);
+    }
+
+    public long size() {
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static ItemDto snapshot(ItemDto itemDto) {
+        ItemDto result = copy(itemDto);
+        result.setLastBooking(null);
+        result.setNextBooking(null);
+        return result;
+    }
+
+    private static ItemDto copy(ItemDto itemDto) {
+        return new ItemDto(itemDto.getId(), itemDto.getName(), itemDto.getDescription(), itemDto.isAvailable(),
+                itemDto.getOwnerId(), itemDto.getRequestId(), itemDto.getLastBooking(), itemDto.getNextBooking(),
+                itemDto.getComments() == null ? null : List.copyOf(itemDto.getComments()));
+    }
+}
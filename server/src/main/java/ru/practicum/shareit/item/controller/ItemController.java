@@ -1,17 +1,27 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
+import ru.practicum.shareit.item.model.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.model.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
@@ -20,6 +30,10 @@ import java.util.Collection;
 public class ItemController {
     @Autowired
     private final ItemService itemService;
+    @Autowired
+    private final ObjectMapper objectMapper;
+    @Autowired
+    private final Validator validator;
 
     @PostMapping
     public ItemDto createItem(@RequestHeader("X-Sharer-User-Id") long ownerId,
@@ -28,6 +42,19 @@ public class ItemController {
         return itemService.createItem(itemCreateDto, ownerId);
     }
 
+    /**
+     * Тело - вещи в формате NDJSON, по одному объекту ItemCreateDto на строку. Строки разбираются
+     * и проверяются по мере чтения запроса, тело целиком в память не загружается. Некорректная
+     * строка отклоняет весь импорт с кодом 400.
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResultDto importItems(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                           HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на импорт предметов пользователя с id={}", ownerId);
+        return itemService.importItems(new ItemImportReader(request.getInputStream(), objectMapper,
+                validator), ownerId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") long ownerId,
                               @PathVariable Long itemId,
@@ -37,9 +64,10 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@PathVariable long itemId) {
+    public ItemDto getItemById(@RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId,
+                               @PathVariable long itemId) {
         log.info("Получен запрос на получение предмета с id={}.", itemId);
-        return itemService.getItemById(itemId);
+        return itemService.getItemById(itemId, userId);
     }
 
     @GetMapping
@@ -49,9 +77,29 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public Collection<ItemDto> getSearchItems(@RequestParam("text") String text) {
-        log.info("Получен запрос на поиск предметов с символами {} в названии или описании.", text);
-        return itemService.getSearchItems(text);
+    public Collection<ItemDto> getSearchItems(@RequestParam("text") String text,
+                                              @RequestParam(value = "from", defaultValue = "0") int from,
+                                              @RequestParam(value = "size", defaultValue = "20") int size) {
+        log.info("Получен запрос на поиск предметов с символами {} в названии или описании с {} в количестве {}.",
+                text, from, size);
+        return itemService.getSearchItems(text, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> getItemSuggestions(@RequestParam("prefix") String prefix,
+                                           @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Получен запрос на подсказки по началу названия {}.", prefix);
+        return itemService.getItemSuggestions(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@PathVariable long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                   LocalDate from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                   LocalDate to) {
+        log.info("Получен запрос на получение занятости предмета с id={} с {} по {}.", itemId, from, to);
+        return itemService.getItemAvailability(itemId, from, to);
     }
 
     @DeleteMapping("/{itemId}")
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exceptions.NotAvailableException;
+import ru.practicum.shareit.item.model.dto.ItemCreateDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Читает NDJSON-тело импорта по строкам и проверяет каждую вещь через {@link Validator} по аннотациям
+ * {@link ItemCreateDto} - тем же, что и в шлюзе.
+ * Некорректная строка прерывает чтение исключением {@link NotAvailableException} с её номером,
+ * ошибка чтения тела (например, оборванное шлюзом соединение) - {@link UncheckedIOException};
+ * в обоих случаях транзакция импорта откатывается.
+ */
+@Slf4j
+class ItemImportReader implements Iterator<ItemCreateDto> {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private int lineNumber;
+    private ItemCreateDto next;
+
+    ItemImportReader(InputStream in, ObjectMapper objectMapper, Validator validator) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    next = parse(line);
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ItemCreateDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ItemCreateDto result = next;
+        next = null;
+        return result;
+    }
+
+    private ItemCreateDto parse(String line) {
+        ItemCreateDto itemCreateDto;
+        try {
+            itemCreateDto = objectMapper.readValue(line, ItemCreateDto.class);
+        } catch (JsonProcessingException e) {
+            throw reject("некорректный JSON");
+        }
+        Set<ConstraintViolation<ItemCreateDto>> violations = validator.validate(itemCreateDto);
+        if (!violations.isEmpty()) {
+            throw reject(violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(" ")));
+        }
+        return itemCreateDto;
+    }
+
+    private NotAvailableException reject(String reason) {
+        log.error("Импорт предметов отклонён: строка {}: {}", lineNumber, reason);
+        return new NotAvailableException("Строка " + lineNumber + ": " + reason);
+    }
+}
@@ -13,8 +13,17 @@ import ru.practicum.shareit.user.model.User;
 @AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+    /**
+     * Последовательность id вещей. Одно значение последовательности резервирует ID_ALLOCATION_SIZE id
+     * (оптимизатор pooled), поэтому Hibernate обращается к ней раз на блок вставок - в том числе при пакетном
+     * импорте, который сохраняет вещи через saveAll.
+     */
+    public static final String ID_SEQUENCE = "items_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(length = 255)
@@ -32,4 +41,11 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request; //если вещь была создана по запросу другого пользователя, то это ссылка на запрос
+
+    @Version
+    private Long version;
+
+    public Item(long id, String name, String description, boolean available, User owner, ItemRequest request) {
+        this(id, name, description, available, owner, request, null);
+    }
 }
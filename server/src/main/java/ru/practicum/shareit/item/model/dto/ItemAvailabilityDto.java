@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private long itemId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<LocalDate> bookedDays;
+    private List<LocalDate> freeDays;
+}
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.item.model.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,9 +11,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemCreateDto {
+    @NotBlank(message = "Название предмета не может быть пустым.")
     private String name;
+
+    @NotBlank(message = "Описание предмета не может быть пустым.")
     private String description;
+
+    @NotNull(message = "Статус аренды предмета не может быть пустым.")
     private Boolean available; //статус, доступна ли вещь для аренды
+
     private long ownerId;
+
+    @Positive(message = "Id запроса не может быть отрицательным")
     private Long requestId;
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportResultDto {
+    private long imported;
+    private Long firstId;
+    private Long lastId;
+}
@@ -1,22 +1,88 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    int STREAM_FETCH_SIZE = 500;
+
     List<Item> findByOwnerId(Long ownerId);
 
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllById(Iterable<Long> ids);
+
+    /**
+     * Поиск подстроки в названии или описании. Совпадения в названии весят 2, в описании - 1,
+     * результаты упорядочены по сумме весов, при равенстве - по id. С LIMIT база отбирает лучшие
+     * строки ограниченной кучей (top-N heapsort), не сортируя все совпадения.
+     */
     @Query("""
             SELECT i FROM Item i
             WHERE i.available = true
             AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :searchText, '%'))
             OR LOWER(i.description) LIKE LOWER(CONCAT('%', :searchText, '%')))
+            ORDER BY CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%', :searchText, '%')) THEN 2 ELSE 0 END
+            + CASE WHEN LOWER(i.description) LIKE LOWER(CONCAT('%', :searchText, '%')) THEN 1 ELSE 0 END DESC,
+            i.id
+            LIMIT :limit OFFSET :offset
             """)
-    List<Item> findByText(@Param("searchText") String searchText);
+    List<Item> findByText(@Param("searchText") String searchText, @Param("offset") int offset,
+                          @Param("limit") int limit);
+
+    /**
+     * Полнотекстовый поиск по GIN-индексу на search_vector (только PostgreSQL). Запрос разбирается
+     * websearch_to_tsquery, поэтому поддерживаются кавычки, OR и исключение через минус.
+     * Результаты упорядочены по рангу: совпадения в названии (вес A) выше совпадений в описании (вес B).
+     */
+    @Query(value = """
+            SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id, i.version
+            FROM items i, websearch_to_tsquery('russian', :searchText) q
+            WHERE i.available = true
+            AND i.search_vector @@ q
+            ORDER BY ts_rank_cd(i.search_vector, q) DESC, i.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Item> searchByFullText(@Param("searchText") String searchText, @Param("offset") int offset,
+                                @Param("limit") int limit);
+
+    /**
+     * Поиск подстроки с той же семантикой и ранжированием, что и {@link #findByText}, но выражения условий
+     * совпадают с триграммными GIN-индексами на lower(name) и lower(description), поэтому PostgreSQL объединяет
+     * два индексных сканирования вместо чтения всей таблицы. Запросы короче трёх символов индекс не сужает.
+     */
+    @Query(value = """
+            SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id, i.version
+            FROM items i
+            WHERE i.available = true
+            AND (lower(i.name) LIKE '%' || lower(:searchText) || '%'
+            OR lower(i.description) LIKE '%' || lower(:searchText) || '%')
+            ORDER BY CASE WHEN lower(i.name) LIKE '%' || lower(:searchText) || '%' THEN 2 ELSE 0 END
+            + CASE WHEN lower(i.description) LIKE '%' || lower(:searchText) || '%' THEN 1 ELSE 0 END DESC,
+            i.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Item> searchBySubstring(@Param("searchText") String searchText, @Param("offset") int offset,
+                                 @Param("limit") int limit);
 
     List<Item> findByRequestId(Long requestId);
+
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i WHERE i.available = true")
+    Stream<Item> streamAllByAvailableTrue();
 }
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCompletion;
+
+/**
+ * Кэш страниц результатов поиска вещей с вытеснением W-TinyLFU. Ключ - текст запроса в нижнем регистре
+ * и границы страницы, вес записи - число вещей в ней, поэтому ограничение max-weight задаёт примерный
+ * объём кэша в вещах. Любое изменение вещей увеличивает поколение и очищает кэш: результат поиска,
+ * начатого до изменения, сохраняется с прежним поколением и уже не будет прочитан. Поколение
+ * увеличивается ещё раз после завершения транзакции, чтобы не остались результаты, прочитанные
+ * до фиксации изменения. Статистика попаданий публикуется в метриках cache.gets{cache=itemSearch}
+ * и shareit.items.search.cache.hit-ratio.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    static final String CACHE_NAME = "itemSearch";
+
+    private final Cache<Key, List<ItemDto>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.items.search.cache.enabled:true}") boolean enabled,
+                           @Value("${shareit.items.search.cache.max-weight:100000}") long maxWeight,
+                           @Value("${shareit.items.search.cache.expire-after-write:PT10M}")
+                           Duration expireAfterWrite) {
+        if (!enabled) {
+            cache = null;
+            log.info("Кэш поиска вещей отключён");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .<Key, List<ItemDto>>weigher((key, items) -> 1 + items.size())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("shareit.items.search.cache.hit-ratio", cache, c -> c.stats().hitRate())
+                .description("Доля запросов поиска вещей, обслуженных из кэша")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает закэшированную страницу или выполняет поиск и запоминает неизменяемую копию результата.
+     * Поиск выполняется вне блокировок кэша, одновременные промахи по одному ключу не ждут друг друга.
+     */
+    public List<ItemDto> get(String text, int from, int size, Supplier<List<ItemDto>> search) {
+        if (cache == null) {
+            return search.get();
+        }
+        Key key = new Key(ItemSearchIndex.normalize(text), from, size, generation.get());
+        List<ItemDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<ItemDto> result = List.copyOf(search.get());
+        if (key.generation() == generation.get()) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Сбрасывает кэш при изменении вещей: сразу и повторно после завершения текущей транзакции.
+     */
+    public void invalidate() {
+        if (cache == null) {
+            return;
+        }
+        invalidateNow();
+        afterCompletion(this::invalidateNow);
+    }
+
+    public long size() {
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private record Key(String text, int from, int size, long generation) {
+    }
+}
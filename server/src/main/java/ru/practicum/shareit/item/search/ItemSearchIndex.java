@@ -0,0 +1,299 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Инвертированный индекс доступных вещей для поиска подстроки в названии и описании без обращения к БД.
+ * Для каждой триграммы строк в нижнем регистре хранится отсортированный массив id вещей, в которых
+ * она встречается. Запрос из трёх и более символов пересекает списки своих триграмм, начиная с самого
+ * короткого, а найденные кандидаты проверяются на точное вхождение подстроки. Для более коротких запросов
+ * проверяются все вещи. Поиск идёт под блокировкой чтения, изменения - под блокировкой записи.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    static final int GRAM = 3;
+
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет или обновляет вещь, недоступная вещь из индекса удаляется.
+     * При откате транзакции возвращается прежнее состояние вещи в индексе.
+     */
+    public void put(ItemDto itemDto) {
+        IndexedItem previous;
+        lock.writeLock().lock();
+        try {
+            previous = detach(itemDto.getId());
+            if (itemDto.isAvailable()) {
+                attach(IndexedItem.of(itemDto));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        afterRollback(() -> restore(itemDto.getId(), previous));
+    }
+
+    /**
+     * Удаляет вещь из индекса, при откате транзакции она возвращается.
+     */
+    public void remove(long itemId) {
+        IndexedItem previous;
+        lock.writeLock().lock();
+        try {
+            previous = detach(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (previous != null) {
+            afterRollback(() -> restore(itemId, previous));
+        }
+    }
+
+    /**
+     * Удаляет все вещи владельца: вещи удалённого пользователя удаляются каскадно на стороне БД.
+     */
+    public void removeOwner(long ownerId) {
+        List<IndexedItem> removed = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (IndexedItem item : List.copyOf(items.values())) {
+                if (item.ownerId() == ownerId) {
+                    removed.add(detach(item.id()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!removed.isEmpty()) {
+            afterRollback(() -> removed.forEach(item -> restore(item.id(), item)));
+        }
+    }
+
+    /**
+     * Ищет доступные вещи, в названии или описании которых есть text без учёта регистра, и возвращает
+     * страницу [from, from + size) по релевантности: совпадение в названии весит 2, в описании - 1,
+     * при равенстве веса раньше идёт вещь с меньшим id. Лучшие from + size вещей отбираются
+     * ограниченной кучей {@link TopK}, остальные совпадения не сортируются.
+     */
+    public List<ItemDto> search(String text, int from, int size) {
+        String query = normalize(text);
+        TopK<Scored> top = new TopK<>(from + size, Scored.ORDER);
+        lock.readLock().lock();
+        try {
+            if (query.length() < GRAM) {
+                for (IndexedItem item : items.values()) {
+                    offer(top, item, query);
+                }
+            } else {
+                for (long itemId : candidates(query)) {
+                    offer(top, items.get(itemId), query);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Scored> ranked = top.toList();
+        return ranked.subList(Math.min(from, ranked.size()), ranked.size()).stream()
+                .map(scored -> scored.item().toDto())
+                .toList();
+    }
+
+    /**
+     * Заносит вещи из снимка БД в индекс. Вещи, уже попавшие в индекс после чтения снимка, не заменяются:
+     * их состояние новее снимка.
+     */
+    public void rebuild(Collection<ItemDto> itemDtos) {
+        lock.writeLock().lock();
+        try {
+            for (ItemDto itemDto : itemDtos) {
+                if (itemDto.isAvailable() && !items.containsKey(itemDto.getId())) {
+                    attach(IndexedItem.of(itemDto));
+                }
+            }
+            log.info("Поисковый индекс вещей построен: {} вещей, {} триграмм", items.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static void offer(TopK<Scored> top, IndexedItem item, String query) {
+        int score = item.score(query);
+        if (score > 0) {
+            top.offer(new Scored(item, score));
+        }
+    }
+
+    private long[] candidates(String query) {
+        long[] grams = grams(query);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                if (lists[i].contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void attach(IndexedItem item) {
+        items.put(item.id(), item);
+        for (long gram : item.grams()) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(item.id());
+        }
+    }
+
+    private IndexedItem detach(long itemId) {
+        IndexedItem item = items.remove(itemId);
+        if (item != null) {
+            for (long gram : item.grams()) {
+                Postings list = postings.get(gram);
+                list.remove(itemId);
+                if (list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return item;
+    }
+
+    private void restore(long itemId, IndexedItem previous) {
+        lock.writeLock().lock();
+        try {
+            detach(itemId);
+            if (previous != null) {
+                attach(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Различные триграммы строки, каждая упакована в long по 16 бит на символ.
+     */
+    private static long[] grams(String... values) {
+        long[] result = new long[16];
+        int size = 0;
+        for (String value : values) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = (long) value.charAt(i) << 32 | (long) value.charAt(i + 1) << 16 | value.charAt(i + 2);
+            }
+        }
+        return Arrays.stream(result, 0, size).sorted().distinct().toArray();
+    }
+
+    private record IndexedItem(long id, String name, String description, long ownerId, Long requestId,
+                               String lowerName, String lowerDescription, long[] grams) {
+
+        static IndexedItem of(ItemDto itemDto) {
+            String name = itemDto.getName() == null ? "" : itemDto.getName();
+            String description = itemDto.getDescription() == null ? "" : itemDto.getDescription();
+            String lowerName = normalize(name);
+            String lowerDescription = normalize(description);
+            return new IndexedItem(itemDto.getId(), itemDto.getName(), itemDto.getDescription(),
+                    itemDto.getOwnerId(), itemDto.getRequestId(), lowerName, lowerDescription,
+                    ItemSearchIndex.grams(lowerName, lowerDescription));
+        }
+
+        int score(String query) {
+            return (lowerName.contains(query) ? 2 : 0) + (lowerDescription.contains(query) ? 1 : 0);
+        }
+
+        ItemDto toDto() {
+            return new ItemDto(id, name, description, true, ownerId, requestId, null, null, null);
+        }
+    }
+
+    private record Scored(IndexedItem item, int score) {
+        static final Comparator<Scored> ORDER = Comparator.comparingInt(Scored::score).reversed()
+                .thenComparingLong(scored -> scored.item().id());
+    }
+
+    /**
+     * Отсортированный по возрастанию список id вещей. Новые вещи получают растущие id,
+     * поэтому добавление обычно сводится к записи в конец массива.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insert(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Заполняет индексы вещей до запуска веб-сервера: индекс подсказок строится всегда, поисковый индекс - только
+ * в режиме MEMORY. Пока индекс не построен, поиск в режиме MEMORY не нашёл бы ничего, поэтому запросы
+ * начинают приниматься только после построения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndexInitializer implements SmartInitializingSingleton {
+    private final ItemRepository itemRepository;
+    private final ItemSearcher itemSearcher;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        log.trace("Начало построения индексов вещей");
+        List<ItemDto> items = new ArrayList<>();
+        try (Stream<Item> stream = itemRepository.streamAllByAvailableTrue()) {
+            Iterator<Item> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                items.add(ItemMapper.mapToItemDto(iterator.next()));
+                if (items.size() % ItemRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        itemSuggestIndex.rebuild(items);
+        if (itemSearcher.getMode() == ItemSearchMode.MEMORY) {
+            itemSearchIndex.rebuild(items);
+        }
+    }
+}
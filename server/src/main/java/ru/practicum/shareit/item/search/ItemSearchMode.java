@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Способ поиска вещей по тексту, задаётся свойством shareit.items.search.mode.
+ */
+public enum ItemSearchMode {
+    /**
+     * Подстрока в названии или описании через LIKE, работает в любой БД, но не использует индексы.
+     */
+    LIKE,
+    /**
+     * Полнотекстовый поиск PostgreSQL по индексируемому столбцу search_vector с ранжированием:
+     * совпадения в названии весят больше, чем в описании.
+     */
+    FULLTEXT,
+    /**
+     * Подстрока в названии или описании, как в LIKE, но через триграммные GIN-индексы pg_trgm.
+     * Запрос переносим, без индексов (например, на H2) он выполняется полным просмотром.
+     */
+    TRIGRAM,
+    /**
+     * Поиск подстроки по {@link ItemSearchIndex} в памяти приложения, БД при поиске не читается.
+     */
+    MEMORY
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в режиме, выбранном в конфигурации. Режим FULLTEXT требует
+ * PostgreSQL со столбцом search_vector (миграция V8), TRIGRAM ускоряется индексами pg_trgm,
+ * в тестах на H2 используется LIKE.
+ * Сервисы сообщают сюда об изменениях вещей, в режиме MEMORY они применяются к {@link ItemSearchIndex}.
+ * Во всех режимах результаты кэшируются в {@link ItemSearchCache}, который сбрасывается при изменении вещей,
+ * а названия вещей для подсказок при вводе хранятся в {@link ItemSuggestIndex}.
+ */
+@Slf4j
+@Component
+public class ItemSearcher {
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemSearchMode mode;
+
+    public ItemSearcher(ItemRepository itemRepository, ItemSearchIndex itemSearchIndex,
+                        ItemSearchCache itemSearchCache, ItemSuggestIndex itemSuggestIndex,
+                        @Value("${shareit.items.search.mode:LIKE}") ItemSearchMode mode) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.mode = mode;
+        log.info("Поиск вещей выполняется в режиме {}", mode);
+    }
+
+    /**
+     * Страница [from, from + size) результатов поиска, упорядоченных по релевантности.
+     */
+    public List<ItemDto> search(String text, int from, int size) {
+        if (text == null || text.isBlank() || size <= 0) {
+            return List.of();
+        }
+        return itemSearchCache.get(text, from, size, () -> find(text, from, size));
+    }
+
+    /**
+     * Подсказки по началу названия: не больше size различных названий доступных вещей.
+     */
+    public List<String> suggest(String prefix, int size) {
+        if (prefix == null || prefix.isBlank() || size <= 0) {
+            return List.of();
+        }
+        return itemSuggestIndex.suggest(prefix.stripLeading(), size);
+    }
+
+    public void itemSaved(ItemDto itemDto) {
+        itemSearchCache.invalidate();
+        itemSuggestIndex.put(itemDto);
+        if (mode == ItemSearchMode.MEMORY) {
+            itemSearchIndex.put(itemDto);
+        }
+    }
+
+    /**
+     * Пакет созданных вещей: кэш сбрасывается один раз на пакет.
+     */
+    public void itemsSaved(Collection<ItemDto> itemDtos) {
+        itemSearchCache.invalidate();
+        for (ItemDto itemDto : itemDtos) {
+            itemSuggestIndex.put(itemDto);
+            if (mode == ItemSearchMode.MEMORY) {
+                itemSearchIndex.put(itemDto);
+            }
+        }
+    }
+
+    public void itemDeleted(long itemId) {
+        itemSearchCache.invalidate();
+        itemSuggestIndex.remove(itemId);
+        if (mode == ItemSearchMode.MEMORY) {
+            itemSearchIndex.remove(itemId);
+        }
+    }
+
+    public void ownerDeleted(long ownerId) {
+        itemSearchCache.invalidate();
+        itemSuggestIndex.removeOwner(ownerId);
+        if (mode == ItemSearchMode.MEMORY) {
+            itemSearchIndex.removeOwner(ownerId);
+        }
+    }
+
+    public ItemSearchMode getMode() {
+        return mode;
+    }
+
+    private List<ItemDto> find(String text, int from, int size) {
+        return switch (mode) {
+            case LIKE -> mapToItemDtos(itemRepository.findByText(text, from, size));
+            case FULLTEXT -> mapToItemDtos(itemRepository.searchByFullText(text, from, size));
+            case TRIGRAM -> mapToItemDtos(itemRepository.searchBySubstring(text, from, size));
+            case MEMORY -> itemSearchIndex.search(text, from, size);
+        };
+    }
+
+    private static List<ItemDto> mapToItemDtos(List<Item> items) {
+        return items.stream()
+                .map(ItemMapper::mapToItemDto)
+                .toList();
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Упорядоченный индекс названий доступных вещей для подсказок при вводе. Названия в нижнем регистре
+ * хранятся в отсортированной структуре, поэтому все названия с заданным началом идут подряд:
+ * подсказки - это первые различные названия начиная с позиции префикса, а одинаковые названия
+ * разных вещей пропускаются одним переходом. Чтение идёт без блокировок, изменения выполняются
+ * по одному.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+    private final NavigableMap<Entry, String> names = new ConcurrentSkipListMap<>(Entry.ORDER);
+    private final Map<Long, IndexedName> items = new ConcurrentHashMap<>();
+
+    /**
+     * Добавляет или обновляет название вещи, недоступная вещь из индекса удаляется.
+     * При откате транзакции возвращается прежнее название.
+     */
+    public void put(ItemDto itemDto) {
+        IndexedName previous;
+        synchronized (this) {
+            previous = detach(itemDto.getId());
+            if (itemDto.isAvailable() && itemDto.getName() != null && !itemDto.getName().isBlank()) {
+                attach(IndexedName.of(itemDto));
+            }
+        }
+        afterRollback(() -> restore(itemDto.getId(), previous));
+    }
+
+    public void remove(long itemId) {
+        IndexedName previous;
+        synchronized (this) {
+            previous = detach(itemId);
+        }
+        if (previous != null) {
+            afterRollback(() -> restore(itemId, previous));
+        }
+    }
+
+    public void removeOwner(long ownerId) {
+        List<IndexedName> removed = new ArrayList<>();
+        synchronized (this) {
+            for (IndexedName item : List.copyOf(items.values())) {
+                if (item.ownerId() == ownerId) {
+                    removed.add(detach(item.entry().id()));
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            afterRollback(() -> removed.forEach(item -> restore(item.entry().id(), item)));
+        }
+    }
+
+    /**
+     * Не больше size различных названий, начинающихся с prefix без учёта регистра, в алфавитном порядке.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String query = ItemSearchIndex.normalize(prefix);
+        List<String> result = new ArrayList<>(Math.min(size, 64));
+        Map.Entry<Entry, String> next = names.ceilingEntry(new Entry(query, Long.MIN_VALUE));
+        while (next != null && result.size() < size && next.getKey().lowerName().startsWith(query)) {
+            result.add(next.getValue());
+            next = names.higherEntry(new Entry(next.getKey().lowerName(), Long.MAX_VALUE));
+        }
+        return result;
+    }
+
+    /**
+     * Заносит вещи из снимка БД в индекс. Вещи, уже попавшие в индекс после чтения снимка, не заменяются:
+     * их состояние новее снимка.
+     */
+    public synchronized void rebuild(Collection<ItemDto> itemDtos) {
+        for (ItemDto itemDto : itemDtos) {
+            if (itemDto.isAvailable() && itemDto.getName() != null && !itemDto.getName().isBlank()
+                    && !items.containsKey(itemDto.getId())) {
+                attach(IndexedName.of(itemDto));
+            }
+        }
+        log.info("Индекс подсказок по названиям вещей построен: {} вещей", items.size());
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private void attach(IndexedName item) {
+        items.put(item.entry().id(), item);
+        names.put(item.entry(), item.name());
+    }
+
+    private IndexedName detach(long itemId) {
+        IndexedName item = items.remove(itemId);
+        if (item != null) {
+            names.remove(item.entry());
+        }
+        return item;
+    }
+
+    private synchronized void restore(long itemId, IndexedName previous) {
+        detach(itemId);
+        if (previous != null) {
+            attach(previous);
+        }
+    }
+
+    private record Entry(String lowerName, long id) {
+        static final Comparator<Entry> ORDER = Comparator.comparing(Entry::lowerName)
+                .thenComparingLong(Entry::id);
+    }
+
+    private record IndexedName(Entry entry, String name, long ownerId) {
+        static IndexedName of(ItemDto itemDto) {
+            String name = itemDto.getName().strip();
+            return new IndexedName(new Entry(ItemSearchIndex.normalize(name), itemDto.getId()), name,
+                    itemDto.getOwnerId());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Отбор k лучших элементов за один проход без сортировки всех кандидатов: в куче хранится не больше k
+ * элементов, в вершине - худший из них, поэтому отбор из n кандидатов стоит O(n log k).
+ */
+final class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param order порядок, в котором лучший элемент идёт первым
+     */
+    TopK(int k, Comparator<? super T> order) {
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), order.reversed());
+    }
+
+    void offer(T element) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (k > 0 && order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    /**
+     * Отобранные элементы от лучшего к худшему.
+     */
+    List<T> toList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
@@ -2,22 +2,33 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.model.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.model.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
 
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(ItemCreateDto itemCreateDto, long ownerId);
 
+    ItemImportResultDto importItems(Iterator<ItemCreateDto> itemCreateDtos, long ownerId);
+
     ItemDto updateItem(ItemUpdateDto itemUpdateDto, long itemId, long ownerId);
 
-    ItemDto getItemById(long itemId);
+    ItemDto getItemById(long itemId, Long userId);
 
     Collection<ItemDto> getUserItems(long ownerId);
 
-    Collection<ItemDto> getSearchItems(String text);
+    Collection<ItemDto> getSearchItems(String text, int from, int size);
+
+    List<String> getItemSuggestions(String prefix, int size);
+
+    ItemAvailabilityDto getItemAvailability(long itemId, LocalDate from, LocalDate to);
 
     void deleteItemById(long itemId, long ownerId);
 
@@ -1,34 +1,58 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.counter.CountedBooking;
+import ru.practicum.shareit.booking.index.ItemAvailabilityIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingBound;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.InternalServerErrorException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.model.dto.ItemCreateDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
-import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.comment.mapper.CommentMapper.mapToComment;
 import static ru.practicum.shareit.item.comment.mapper.CommentMapper.mapToCommentDto;
@@ -39,6 +63,8 @@ import static ru.practicum.shareit.item.mapper.ItemMapper.*;
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    static final int MAX_AVAILABILITY_DAYS = 366;
+
     @Autowired
     private final ItemRepository itemRepository;
     @Autowired
@@ -49,6 +75,21 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     @Autowired
     private final ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    @Autowired
+    private final BookingStateCounters bookingStateCounters;
+    @Autowired
+    private final OutboxWriter outboxWriter;
+    @Autowired
+    private final ItemSearcher itemSearcher;
+    @Autowired
+    private final ItemDetailsCache itemDetailsCache;
+    @Autowired
+    private final EntityManager entityManager;
+
+    @Value("${shareit.items.import.batch-size:500}")
+    private int importBatchSize;
 
     @Override
     @Transactional
@@ -63,8 +104,45 @@ public class ItemServiceImpl implements ItemService {
                     .orElseThrow(() -> new NotFoundException("Запрос на предмет с id=" + itemCreateDto.getRequestId()
                             + " не найден")));
         }
+        ItemDto itemDto = mapToItemDto(item);
+        itemSearcher.itemSaved(itemDto);
+        outboxWriter.write(OutboxEventType.ITEM_CREATED, itemDto.getId(), itemDto);
         log.info("Предмет {} создан", item);
-        return mapToItemDto(item);
+        return itemDto;
+    }
+
+    /**
+     * Импорт идёт одной транзакцией: вещи читаются из итератора по мере поступления и сохраняются
+     * пакетами через saveAll. Hibernate берёт id из items_seq блоками и отправляет вставки JDBC-пакетами
+     * (hibernate.jdbc.batch_size), а после каждого пакета контекст сбрасывается и очищается,
+     * поэтому в памяти держится не больше одного пакета.
+     * Ошибка в любой строке отменяет весь импорт.
+     */
+    @Override
+    @Transactional
+    public ItemImportResultDto importItems(Iterator<ItemCreateDto> itemCreateDtos, long ownerId) {
+        log.trace("Начало импорта предметов пользователя с id={}", ownerId);
+        User user = userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователя с id=" + ownerId
+                + " не существует"));
+        int batchSize = Math.max(1, importBatchSize);
+        Map<Long, ItemRequest> requests = new HashMap<>();
+        List<Item> batch = new ArrayList<>(batchSize);
+        ItemImportResultDto result = new ItemImportResultDto(0, null, null);
+        while (itemCreateDtos.hasNext()) {
+            ItemCreateDto itemCreateDto = itemCreateDtos.next();
+            itemCreateDto.setOwnerId(ownerId);
+            Item item = mapToItem(itemCreateDto, user);
+            if (itemCreateDto.getRequestId() != null) {
+                item.setRequest(requests.computeIfAbsent(itemCreateDto.getRequestId(), this::getItemRequestReference));
+            }
+            batch.add(item);
+            if (batch.size() == batchSize) {
+                insertImportedBatch(batch, result);
+            }
+        }
+        insertImportedBatch(batch, result);
+        log.info("Импортировано {} предметов пользователя с id={}", result.getImported(), ownerId);
+        return result;
     }
 
     @Override
@@ -80,23 +158,32 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException("Обновить предмет может только его владелец");
         }
         Item updatedItem = new Item(item.getId(), item.getName(), item.getDescription(),
-                item.isAvailable(), item.getOwner(), item.getRequest());
+                item.isAvailable(), item.getOwner(), item.getRequest(), item.getVersion());
         updatedItem = updateItemFields(updatedItem, itemUpdateDto);
-        item = itemRepository.save(updatedItem);
+        try {
+            item = itemRepository.saveAndFlush(updatedItem);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new AlreadyExistsException("Предмет с id=" + itemId + " был изменён параллельно, повторите запрос");
+        }
+        ItemDto itemDto = mapToItemDto(item);
+        itemSearcher.itemSaved(itemDto);
+        itemDetailsCache.invalidate(itemId);
+        outboxWriter.write(OutboxEventType.ITEM_UPDATED, itemDto.getId(), itemDto);
         log.info("Предмет {} обновлён", item);
-        return mapToItemDto(item);
+        return itemDto;
     }
 
+    /**
+     * Карточка вещи с комментариями берётся из {@link ItemDetailsCache}, бронирования для владельца
+     * запрашиваются при каждом обращении.
+     */
     @Override
-    public ItemDto getItemById(long itemId) {
+    public ItemDto getItemById(long itemId, Long userId) {
         log.trace("Начало получения предмета с id={}", itemId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Предмета с id=" + itemId
-                + " не существует"));
-        List<CommentDto> comments = commentRepository.findAllByItemId(itemId).stream()
-                .map(CommentMapper::mapToCommentDto)
-                .toList();
-        ItemDto itemDto = mapToItemDto(item);
-        itemDto.setComments(comments);
+        ItemDto itemDto = itemDetailsCache.get(itemId, this::loadItemDetails);
+        if (userId != null && itemDto.getOwnerId() == userId) {
+            setLastAndNextBookings(Map.of(itemId, itemDto));
+        }
         log.info("Получен предмет с id={}", itemId);
         return itemDto;
     }
@@ -106,18 +193,49 @@ public class ItemServiceImpl implements ItemService {
         log.trace("Начало получения всех предметов пользователя с id={}", ownerId);
         User user = userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователя с id="
                 + ownerId + " не существует"));
-        return itemRepository.findByOwnerId(ownerId).stream()
-                .map(ItemMapper::mapToItemDto)
-                .toList();
+        return mapWithBookingsAndComments(itemRepository.findByOwnerId(ownerId), true);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Collection<ItemDto> getSearchItems(String text) {
-        log.trace("Начало получения всех предметов по строке={}", text);
-        return itemRepository.findByText(text).stream()
-                .map(ItemMapper::mapToItemDto)
-                .toList();
+    public Collection<ItemDto> getSearchItems(String text, int from, int size) {
+        log.trace("Начало получения предметов по строке={} с {} в количестве {}", text, from, size);
+        return itemSearcher.search(text, from, size);
+    }
+
+    /**
+     * Подсказки строятся по индексу названий в памяти, запросов к БД нет.
+     */
+    @Override
+    public List<String> getItemSuggestions(String prefix, int size) {
+        log.trace("Начало получения подсказок по началу названия={}", prefix);
+        return itemSearcher.suggest(prefix, size);
+    }
+
+    /**
+     * Занятость вещи по дням берётся из {@link ItemAvailabilityIndex}, таблица бронирований не читается.
+     * Период должен начинаться не позже своего окончания и быть не длиннее {@value #MAX_AVAILABILITY_DAYS} дней.
+     */
+    @Override
+    public ItemAvailabilityDto getItemAvailability(long itemId, LocalDate from, LocalDate to) {
+        log.trace("Начало получения занятости предмета с id={} с {} по {}", itemId, from, to);
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            log.error("Некорректный период занятости с {} по {}", from, to);
+            throw new NotAvailableException("Период должен начинаться не позже своего окончания и быть не длиннее "
+                    + MAX_AVAILABILITY_DAYS + " дней");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Предмета с id=" + itemId + " не существует");
+        }
+        BitSet booked = itemAvailabilityIndex.getBookedDays(itemId, from, to);
+        List<LocalDate> bookedDays = new ArrayList<>();
+        List<LocalDate> freeDays = new ArrayList<>();
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        for (int i = 0; i < days; i++) {
+            (booked.get(i) ? bookedDays : freeDays).add(from.plusDays(i));
+        }
+        log.info("Получена занятость предмета с id={} с {} по {}", itemId, from, to);
+        return new ItemAvailabilityDto(itemId, from, to, bookedDays, freeDays);
     }
 
     @Override
@@ -132,7 +250,13 @@ public class ItemServiceImpl implements ItemService {
             log.error("Удалить предмет может только его владелец");
             throw new NotAvailableException("Удалить предмет может только его владелец");
         }
+        ItemDto itemDto = mapToItemDto(item);
+        List<CountedBooking> bookings = bookingRepository.findCountedByItemId(itemId);
         itemRepository.deleteById(itemId);
+        itemSearcher.itemDeleted(itemId);
+        bookingStateCounters.remove(bookings);
+        itemDetailsCache.invalidate(itemId);
+        outboxWriter.write(OutboxEventType.ITEM_DELETED, itemId, itemDto);
         log.info("Предмет с id={} удалён", itemId);
     }
 
@@ -154,6 +278,7 @@ public class ItemServiceImpl implements ItemService {
             Comment comment = mapToComment(commentCreateDto, user, item);
             comment.setCreated(now);
             CommentDto commentDto = mapToCommentDto(commentRepository.save(comment));
+            itemDetailsCache.invalidate(itemId);
             return commentDto;
         } else if (booking != null && booking.getStatus().equals(BookingStatus.APPROVED)) {
             log.info("Невозможно добавить комментарий, статус бронирования APPROVED");
@@ -162,4 +287,75 @@ public class ItemServiceImpl implements ItemService {
             throw new InternalServerErrorException("Ошибка сервера при добавлении комментария");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Заполняет комментарии всех вещей одним запросом, а при withBookings ещё и lastBooking/nextBooking -
+     * одним оконным запросом по бронированиям всех вещей сразу.
+     */
+    private List<ItemDto> mapWithBookingsAndComments(List<Item> items, boolean withBookings) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .toList();
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::mapToCommentDto, Collectors.toList())));
+        Map<Long, ItemDto> itemDtos = new LinkedHashMap<>();
+        for (Item item : items) {
+            ItemDto itemDto = mapToItemDto(item);
+            itemDto.setComments(comments.getOrDefault(item.getId(), List.of()));
+            itemDtos.put(item.getId(), itemDto);
+        }
+        if (withBookings) {
+            setLastAndNextBookings(itemDtos);
+        }
+        return new ArrayList<>(itemDtos.values());
+    }
+
+    private ItemRequest getItemRequestReference(long requestId) {
+        if (!itemRequestRepository.existsById(requestId)) {
+            throw new NotFoundException("Запрос на предмет с id=" + requestId + " не найден");
+        }
+        return itemRequestRepository.getReferenceById(requestId);
+    }
+
+    private void insertImportedBatch(List<Item> batch, ItemImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ItemDto> itemDtos = itemRepository.saveAll(batch).stream()
+                .map(ItemMapper::mapToItemDto)
+                .toList();
+        itemSearcher.itemsSaved(itemDtos);
+        outboxWriter.writeAll(OutboxEventType.ITEM_CREATED, itemDtos, ItemDto::getId);
+        entityManager.flush();
+        entityManager.clear();
+        if (result.getFirstId() == null) {
+            result.setFirstId(itemDtos.getFirst().getId());
+        }
+        result.setLastId(itemDtos.getLast().getId());
+        result.setImported(result.getImported() + itemDtos.size());
+        batch.clear();
+    }
+
+    private ItemDto loadItemDetails(long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Предмета с id=" + itemId
+                + " не существует"));
+        return mapWithBookingsAndComments(List.of(item), false).getFirst();
+    }
+
+    private void setLastAndNextBookings(Map<Long, ItemDto> itemDtos) {
+        List<ItemBookingBound> bounds = bookingRepository.findLastAndNextBookings(List.copyOf(itemDtos.keySet()),
+                LocalDateTime.now());
+        for (ItemBookingBound bound : bounds) {
+            ItemDto itemDto = itemDtos.get(bound.getItemId());
+            if (Boolean.TRUE.equals(bound.getNext())) {
+                itemDto.setNextBooking(bound.getBookingId());
+            } else {
+                itemDto.setLastBooking(bound.getBookingId());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.util.List;
+
+/**
+ * Периодически передаёт события из outbox получателю пачками по batch-size штук.
+ * Пачка выбирается, передаётся и удаляется в одной транзакции: при ошибке получателя
+ * она остаётся в outbox и будет передана повторно (доставка как минимум один раз).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relayBatch();
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Ошибка передачи событий outbox, пачка будет передана повторно", e);
+        }
+    }
+
+    int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.lockNextBatch(Limit.of(batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            outboxSink.publish(events);
+            outboxEventRepository.deleteAllByIdInBatch(events.stream()
+                    .map(OutboxEvent::getId)
+                    .toList());
+            return events.size();
+        });
+        if (published != null && published > 0) {
+            log.debug("Передано {} событий outbox", published);
+        }
+        return published == null ? 0 : published;
+    }
+}
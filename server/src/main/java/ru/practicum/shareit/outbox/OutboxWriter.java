@@ -0,0 +1,54 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.InternalServerErrorException;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Записывает доменные события в таблицу outbox_events. Вызывается только внутри транзакции сервиса,
+ * поэтому событие фиксируется тогда и только тогда, когда фиксируется само изменение.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxWriter {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void write(OutboxEventType type, long aggregateId, Object payload) {
+        outboxEventRepository.save(toEvent(type, aggregateId, payload, LocalDateTime.now()));
+    }
+
+    public <T> void writeAll(OutboxEventType type, Collection<T> payloads, ToLongFunction<T> aggregateId) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = payloads.stream()
+                .map(payload -> toEvent(type, aggregateId.applyAsLong(payload), payload, now))
+                .toList();
+        outboxEventRepository.saveAll(events);
+    }
+
+    private OutboxEvent toEvent(OutboxEventType type, long aggregateId, Object payload, LocalDateTime created) {
+        try {
+            return new OutboxEvent(0L, type, type.getAggregateType(), aggregateId,
+                    objectMapper.writeValueAsString(payload), created);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerErrorException("Не удалось сериализовать событие " + type + " для id="
+                    + aggregateId);
+        }
+    }
+}
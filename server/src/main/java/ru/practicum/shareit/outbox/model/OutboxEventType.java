@@ -0,0 +1,19 @@
+package ru.practicum.shareit.outbox.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum OutboxEventType {
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_APPROVED("BOOKING"),
+    BOOKING_REJECTED("BOOKING"),
+    BOOKING_EXPIRED("BOOKING"),
+    ITEM_CREATED("ITEM"),
+    ITEM_UPDATED("ITEM"),
+    ITEM_DELETED("ITEM"),
+    ITEM_REQUEST_CREATED("ITEM_REQUEST");
+
+    private final String aggregateType;
+}
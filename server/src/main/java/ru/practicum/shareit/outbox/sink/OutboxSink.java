@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий outbox. Пачка передаётся целиком в порядке записи; если publish
+ * завершается исключением, пачка остаётся в outbox и будет передана повторно.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events);
+}
@@ -1,11 +1,16 @@
-
 package ru.practicum.shareit.request.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @EntityGraph(attributePaths = "requester")
     List<ItemRequest> findByRequesterIdOrderByCreatedAsc(long userId);
+
+    @Override
+    @EntityGraph(attributePaths = "requester")
+    List<ItemRequest> findAll();
 }
@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.dto.ItemRequestAnswer;
 import ru.practicum.shareit.request.model.dto.ItemRequestCreateDto;
@@ -17,6 +19,8 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.request.mapper.ItemRequestMapper.mapToItemRequest;
 import static ru.practicum.shareit.request.mapper.ItemRequestMapper.mapToItemRequestDto;
@@ -30,6 +34,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final OutboxWriter outboxWriter;
 
     @Override
     @Transactional
@@ -41,6 +46,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequest.setRequester(user);
         itemRequest.setCreated(LocalDateTime.now());
         ItemRequestDto itemRequestDto = mapToItemRequestDto(itemRequestRepository.save(itemRequest));
+        outboxWriter.write(OutboxEventType.ITEM_REQUEST_CREATED, itemRequestDto.getId(), itemRequestDto);
         log.info("Запрос {} создан", itemRequestDto);
         return itemRequestDto;
     }
@@ -60,9 +66,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.trace("Начало получения просмотра всех запросов пользователя с id={}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + userId + " не существует"));
-        List<ItemRequestDto> requests = itemRequestRepository.findByRequesterIdOrderByCreatedAsc(userId).stream()
-                .map(this::getItemRequestDtoWithAnswers)
-                .toList();
+        List<ItemRequestDto> requests = getItemRequestDtosWithAnswers(
+                itemRequestRepository.findByRequesterIdOrderByCreatedAsc(userId));
         log.info("Получен список запросов пользователя с id={}, {}", userId, requests);
         return requests;
     }
@@ -72,9 +77,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.trace("Начало получения просмотра всех запросов пользователем с id={}", userId);
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + userId + " не существует"));
-        List<ItemRequestDto> requests = itemRequestRepository.findAll().stream()
-                .map(this::getItemRequestDtoWithAnswers)
-                .toList();
+        List<ItemRequestDto> requests = getItemRequestDtosWithAnswers(itemRequestRepository.findAll());
         log.info("Получен список всех запросов пользователем с id={}, {}", userId, requests);
         return requests;
     }
@@ -95,4 +98,28 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.info("ItemRequestDto с ответами получен: {}", itemRequestDto);
         return itemRequestDto;
     }
+
+    /**
+     * Ответы на все запросы списка загружаются одним запросом findByRequestIdIn и группируются по id
+     * запроса, поэтому число обращений к БД не зависит от числа запросов в списке.
+     */
+    private List<ItemRequestDto> getItemRequestDtosWithAnswers(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+        Map<Long, List<ItemRequestAnswer>> answers = itemRepository.findByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemRequestMapper::mapToItemRequestAnswer, Collectors.toList())));
+        log.info("Ответы для {} запросов получены", itemRequests.size());
+        return itemRequests.stream()
+                .map(itemRequest -> {
+                    ItemRequestDto itemRequestDto = mapToItemRequestDto(itemRequest);
+                    itemRequestDto.setItems(answers.getOrDefault(itemRequest.getId(), List.of()));
+                    return itemRequestDto;
+                })
+                .toList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Действия по завершении текущей транзакции для структур в памяти, которые меняются вместе с БД.
+ * Вне транзакции действие не регистрируется: изменение уже окончательно.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class TransactionCallbacks {
+
+    /**
+     * Выполняет action, если текущая транзакция будет откачена.
+     */
+    public static void afterRollback(Runnable action) {
+        register(status -> {
+            if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполняет action после завершения текущей транзакции независимо от её исхода.
+     */
+    public static void afterCompletion(Runnable action) {
+        register(status -> action.run());
+    }
+
+    private static void register(IntConsumer callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.accept(status);
+                }
+            });
+        }
+    }
+}
@@ -5,8 +5,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.counter.CountedBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.search.ItemSearcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserCreateDto;
 import ru.practicum.shareit.user.model.dto.UserDto;
@@ -15,6 +20,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.Collection;
+import java.util.List;
 
 import static ru.practicum.shareit.user.mapper.UserMapper.*;
 
@@ -25,6 +31,14 @@ import static ru.practicum.shareit.user.mapper.UserMapper.*;
 public class UserServiceImpl implements UserService {
     @Autowired
     private final UserRepository userRepository;
+    @Autowired
+    private final ItemSearcher itemSearcher;
+    @Autowired
+    private final ItemDetailsCache itemDetailsCache;
+    @Autowired
+    private final BookingRepository bookingRepository;
+    @Autowired
+    private final BookingStateCounters bookingStateCounters;
 
     @Override
     @Transactional
@@ -55,6 +69,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + userId + " не существует."));
         updateUserFields(user, userUpdateDto);
         user = userRepository.save(user);
+        itemDetailsCache.invalidateAll();
         log.info("Пользователь {} обновлён", user);
         return mapToUserDto(user);
     }
@@ -81,7 +96,12 @@ public class UserServiceImpl implements UserService {
         log.trace("Начало удаления пользователя с id={}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователя с id=" + userId + " не существует."));
+        // Бронирования пользователя и бронирования его вещей удаляются каскадно вместе с ним
+        List<CountedBooking> bookings = bookingRepository.findCountedByUserId(userId);
         userRepository.deleteById(userId);
+        itemSearcher.ownerDeleted(userId);
+        bookingStateCounters.remove(bookings);
+        itemDetailsCache.invalidateAll();
         log.info("Пользователь с id={} удалён", userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+CREATE SEQUENCE users_seq INCREMENT BY 50 OWNED BY users.id;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users));
+
+CREATE SEQUENCE requests_seq INCREMENT BY 50 OWNED BY requests.id;
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM requests));
+
+CREATE SEQUENCE items_seq INCREMENT BY 50 OWNED BY items.id;
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM items));
+
+CREATE SEQUENCE bookings_seq INCREMENT BY 50 OWNED BY bookings.id;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings));
+
+CREATE SEQUENCE comments_seq INCREMENT BY 50 OWNED BY comments.id;
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM comments));
+
+CREATE SEQUENCE outbox_events_seq INCREMENT BY 50 OWNED BY outbox_events.id;
+
+ALTER TABLE outbox_events ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE outbox_events ALTER COLUMN id SET DEFAULT nextval('outbox_events_seq');
+
+SELECT setval('outbox_events_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM outbox_events));
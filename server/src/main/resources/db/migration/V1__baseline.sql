@@ -49,4 +49,4 @@ CREATE TABLE IF NOT EXISTS comments (
           CONSTRAINT pk_comment PRIMARY KEY (id),
           CONSTRAINT FK_COMMENT_TO_ITEMS FOREIGN KEY(item_id) REFERENCES items(id) ON DELETE CASCADE,
           CONSTRAINT FK_BOOKING_TO_USERS FOREIGN KEY(author_id) REFERENCES users(id) ON DELETE CASCADE
-        );
\ No newline at end of file
+        );
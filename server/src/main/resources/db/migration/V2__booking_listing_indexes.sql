@@ -0,0 +1,9 @@
+ALTER TABLE items DROP CONSTRAINT IF EXISTS UQ_ITEM_REQUEST_URL;
+
+CREATE INDEX IX_ITEMS_OWNER ON items (owner_id);
+
+CREATE INDEX IX_ITEMS_REQUEST ON items (request_id);
+
+CREATE INDEX IX_BOOKINGS_BOOKER_END ON bookings (booker_id, end_date DESC, id DESC);
+
+CREATE INDEX IX_BOOKINGS_ITEM_END ON bookings (item_id, end_date DESC, id DESC);
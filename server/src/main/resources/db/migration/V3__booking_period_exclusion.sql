@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD COLUMN period TSRANGE
+          GENERATED ALWAYS AS (tsrange(start_date, end_date, '[)')) STORED;
+
+ALTER TABLE bookings ADD CONSTRAINT EX_BOOKINGS_ITEM_PERIOD
+          EXCLUDE USING gist (item_id WITH =, period WITH &&) WHERE (status = 'APPROVED');
@@ -0,0 +1,14 @@
+CREATE INDEX IX_BOOKINGS_END ON bookings (end_date);
+
+CREATE TABLE bookings_archive (
+          id BIGINT NOT NULL,
+          start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+          end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+          name VARCHAR(100),
+          item_id BIGINT NOT NULL,
+          booker_id BIGINT NOT NULL,
+          status VARCHAR(10),
+          version BIGINT NOT NULL DEFAULT 0,
+          archived TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+          CONSTRAINT pk_booking_archive PRIMARY KEY (id)
+        );
@@ -0,0 +1,9 @@
+CREATE TABLE outbox_events (
+          id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+          event_type VARCHAR(50) NOT NULL,
+          aggregate_type VARCHAR(50) NOT NULL,
+          aggregate_id BIGINT NOT NULL,
+          payload TEXT NOT NULL,
+          created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+          CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+        );
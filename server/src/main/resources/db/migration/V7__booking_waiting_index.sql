@@ -0,0 +1 @@
+CREATE INDEX IX_BOOKINGS_WAITING_START ON bookings (start_date, id) WHERE status = 'WAITING';
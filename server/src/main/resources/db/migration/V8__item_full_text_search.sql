@@ -0,0 +1,5 @@
+ALTER TABLE items ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+          setweight(to_tsvector('russian', coalesce(name, '')), 'A')
+          || setweight(to_tsvector('russian', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX IX_ITEMS_SEARCH_VECTOR ON items USING gin (search_vector);
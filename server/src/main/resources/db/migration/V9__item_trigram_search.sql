@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IX_ITEMS_NAME_TRGM ON items USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IX_ITEMS_DESCRIPTION_TRGM ON items USING gin (lower(description) gin_trgm_ops);
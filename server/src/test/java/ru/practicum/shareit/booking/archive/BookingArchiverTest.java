@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingArchiverTest {
+    private static final LocalDateTime THRESHOLD = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BookingStateCounters bookingStateCounters;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        bookingStateCounters = new BookingStateCounters();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        owner = new User(1L, "Владелец", "owner@example.com");
+        booker = new User(2L, "Бронирующий", "booker@example.com");
+        item = new Item(1L, "Вещь", "Описание", true, owner, null);
+    }
+
+    @Test
+    void archive_ShouldMoveBatchesUntilBacklogIsDrained() {
+        Booking first = past(1L, BookingStatus.APPROVED);
+        Booking second = past(2L, BookingStatus.REJECTED);
+        Booking third = past(3L, BookingStatus.APPROVED);
+        List.of(first, second, third).forEach(bookingStateCounters::add);
+        when(jdbcTemplate.query(contains("INSERT INTO bookings_archive"), any(RowMapper.class), eq(THRESHOLD), eq(2)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), first, second))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), third));
+
+        int archived = archiver(2, 10).archive(THRESHOLD);
+
+        assertEquals(3, archived);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(), any());
+        Map<State, Long> bookerCounts = bookingStateCounters.getBookerCounts(booker.getId());
+        assertEquals(0L, bookerCounts.get(State.ALL));
+        assertEquals(0L, bookerCounts.get(State.PAST));
+        assertEquals(0L, bookerCounts.get(State.REJECTED));
+        assertEquals(0L, bookingStateCounters.getOwnerCounts(owner.getId()).get(State.ALL));
+    }
+
+    @Test
+    void archive_ShouldStopAfterMaxBatches() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(THRESHOLD), eq(1)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), past(1L, BookingStatus.APPROVED)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), past(2L, BookingStatus.APPROVED)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), past(3L, BookingStatus.APPROVED)));
+
+        int archived = archiver(1, 2).archive(THRESHOLD);
+
+        assertEquals(2, archived);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(), any());
+    }
+
+    @Test
+    void archive_ShouldDoNothing_WhenNoBookingsEndedBeforeThreshold() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(THRESHOLD), eq(100))).thenReturn(List.of());
+
+        assertEquals(0, archiver(100, 10).archive(THRESHOLD));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(), any());
+    }
+
+    private BookingArchiver archiver(int batchSize, int maxBatches) {
+        return new BookingArchiver(jdbcTemplate, transactionTemplate, bookingStateCounters, 24, batchSize,
+                maxBatches);
+    }
+
+    private Booking past(long id, BookingStatus status) {
+        LocalDateTime end = THRESHOLD.minusDays(id);
+        return new Booking(id, end.minusDays(1), end, item, booker, status);
+    }
+
+    private static List<Object> rows(RowMapper<?> mapper, Booking... bookings) throws SQLException {
+        List<Object> rows = new ArrayList<>();
+        for (Booking booking : bookings) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(booking.getId());
+            when(rs.getLong("booker_id")).thenReturn(booking.getBooker().getId());
+            when(rs.getLong("owner_id")).thenReturn(booking.getItem().getOwner().getId());
+            when(rs.getString("status")).thenReturn(booking.getStatus().name());
+            when(rs.getTimestamp("start_date")).thenReturn(Timestamp.valueOf(booking.getStart()));
+            when(rs.getTimestamp("end_date")).thenReturn(Timestamp.valueOf(booking.getEnd()));
+            rows.add(mapper.mapRow(rs, rows.size()));
+        }
+        return rows;
+    }
+}
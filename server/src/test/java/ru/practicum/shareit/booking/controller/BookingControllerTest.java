@@ -8,9 +8,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.NotAvailableException;
@@ -19,14 +22,21 @@ import ru.practicum.shareit.item.model.dto.ItemBookingDto;
 import ru.practicum.shareit.user.model.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -34,6 +44,8 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -129,6 +141,26 @@ class BookingControllerTest {
                 eq(1L));
     }
 
+    @Test
+    void createValidBookingsBatch() throws Exception {
+        when(bookingService.createBookings(any(), anyLong())).thenReturn(List.of(
+                new BookingBatchResultDto(0, 201, bookingDto, null),
+                new BookingBatchResultDto(1, 404, null, "Предмета с id=2 не существует")));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookingCreateDto, bookingCreateDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].booking.id", is((int) bookingDto.getId())))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].status", is(404)));
+
+        verify(bookingService, times(1)).createBookings(any(), eq(1L));
+    }
+
     @Test
     void updateValidItemOwnerBookingSolutionToApproved() throws Exception {
         bookingDto.setStatus(BookingStatus.APPROVED);
@@ -193,6 +225,101 @@ class BookingControllerTest {
                 anyLong(), anyBoolean());
     }
 
+    @Test
+    void updateValidItemOwnerBookingsSolution() throws Exception {
+        bookingDto.setStatus(BookingStatus.REJECTED);
+        when(bookingService.itemOwnerBookingsSolution(any(), anyLong(), anyBoolean())).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(1L, 2L), false))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].status", is("REJECTED")));
+
+        verify(bookingService, times(1)).itemOwnerBookingsSolution(eq(List.of(1L, 2L)), eq(1L), eq(false));
+    }
+
+    @Test
+    void getValidOwnerBookingCounts() throws Exception {
+        Map<State, Long> counts = new EnumMap<>(State.class);
+        counts.put(State.ALL, 4L);
+        counts.put(State.WAITING, 3L);
+        counts.put(State.CURRENT, 1L);
+        when(bookingService.getOwnerBookingCounts(1L)).thenReturn(counts);
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL", is(4)))
+                .andExpect(jsonPath("$.WAITING", is(3)))
+                .andExpect(jsonPath("$.CURRENT", is(1)));
+    }
+
+    @Test
+    void getInvalidUserBookingCountsUserNotFound() throws Exception {
+        when(bookingService.getUserBookingCounts(1L)).thenThrow(new NotFoundException("Пользователя с id=1 не существует"));
+
+        mockMvc.perform(get("/bookings/counts")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportValidOwnerBookingsAsNdjson() throws Exception {
+        BookingDto second = new BookingDto(2L, bookingDto.getStart(), bookingDto.getEnd(), itemBookingDto, userDto,
+                BookingStatus.APPROVED);
+        doAnswer(invocation -> {
+            Consumer<BookingDto> action = invocation.getArgument(1);
+            action.accept(bookingDto);
+            action.accept(second);
+            return null;
+        }).when(bookingService).exportOwnerBookings(eq(1L), any());
+
+        String body = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(bookingDto.getId(), objectMapper.readValue(lines[0], BookingDto.class).getId());
+        assertEquals(second.getId(), objectMapper.readValue(lines[1], BookingDto.class).getId());
+    }
+
+    @Test
+    void exportInvalidOwnerBookingsUserNotFound() throws Exception {
+        doThrow(new NotFoundException("Пользователя с id=1 не существует"))
+                .when(bookingService).exportOwnerBookings(eq(1L), any());
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamValidBookingStatuses() throws Exception {
+        when(bookingService.subscribeToStatusChanges(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void streamInvalidBookingStatusesUserNotFound() throws Exception {
+        when(bookingService.subscribeToStatusChanges(1L))
+                .thenThrow(new NotFoundException("Пользователя с id=1 не существует"));
+
+        mockMvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getValidBookingById() throws Exception {
         when(bookingService.getBookingById(anyLong(), anyLong())).thenReturn(bookingDto);
@@ -233,7 +360,8 @@ class BookingControllerTest {
     @Test
     void getValidAllUserBookingsAllState() throws Exception {
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getAllUserBookings(anyLong(), any(State.class))).thenReturn(bookings);
+        when(bookingService.getAllUserBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -242,13 +370,14 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
 
-        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.ALL));
+        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.ALL), any(), any(), anyInt());
     }
 
     @Test
     void getValidAllUserBookingsDefaultState() throws Exception {
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getAllUserBookings(anyLong(), any(State.class))).thenReturn(bookings);
+        when(bookingService.getAllUserBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -256,7 +385,7 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
 
-        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.ALL));
+        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.ALL), any(), any(), anyInt());
     }
 
     @Test
@@ -264,7 +393,7 @@ class BookingControllerTest {
         bookingCreateDto.setStart(LocalDateTime.of(2025, 1, 1, 10, 0));
         bookingCreateDto.setEnd(LocalDateTime.of(2025, 1, 1, 11, 0));
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getAllUserBookings(anyLong(), eq(State.PAST))).thenReturn(bookings);
+        when(bookingService.getAllUserBookings(anyLong(), eq(State.PAST), any(), any(), anyInt())).thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -273,7 +402,7 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
 
-        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.PAST));
+        verify(bookingService, times(1)).getAllUserBookings(eq(1L), eq(State.PAST), any(), any(), anyInt());
     }
 
     @Test
@@ -282,13 +411,14 @@ class BookingControllerTest {
                         .param("state", "ALL"))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingService, never()).getAllUserBookings(anyLong(), any(State.class));
+        verify(bookingService, never()).getAllUserBookings(anyLong(), any(State.class), any(), any(), anyInt());
     }
 
     @Test
     void getValidOwnerItemsBookingsAllState() throws Exception {
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class))).thenReturn(bookings);
+        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -297,13 +427,14 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
 
-        verify(bookingService, times(1)).getOwnerItemsBookings(eq(1L), eq(State.ALL));
+        verify(bookingService, times(1)).getOwnerItemsBookings(eq(1L), eq(State.ALL), any(), any(), anyInt());
     }
 
     @Test
     void getValidOwnerItemsBookingsDefaultState() throws Exception {
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class))).thenReturn(bookings);
+        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -311,18 +442,38 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
 
-        verify(bookingService, times(1)).getOwnerItemsBookings(eq(1L), eq(State.ALL));
+        verify(bookingService, times(1)).getOwnerItemsBookings(eq(1L), eq(State.ALL), any(), any(), anyInt());
     }
 
     @Test
     void getInvalidOwnerItemsBookingsWithoutUserIdHeader() throws Exception {
         List<BookingDto> bookings = List.of(bookingDto);
-        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class))).thenReturn(bookings);
+        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings/owner")
                         .param("state", "ALL"))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingService, never()).getOwnerItemsBookings(anyLong(), any(State.class));
+        verify(bookingService, never()).getOwnerItemsBookings(anyLong(), any(State.class), any(), any(), anyInt());
+    }
+
+    @Test
+    void getValidOwnerItemsBookingsNextPage() throws Exception {
+        when(bookingService.getOwnerItemsBookings(anyLong(), any(State.class), any(), any(), anyInt()))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "WAITING")
+                        .param("cursorEnd", "2050-01-01T12:00:00")
+                        .param("cursorId", "7")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(bookingService, times(1)).getOwnerItemsBookings(eq(1L), eq(State.WAITING),
+                eq(LocalDateTime.of(2050, 1, 1, 12, 0)), eq(7L), eq(5));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.booking.counter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingStateCountersTest {
+    private BookingStateCounters counters;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        counters = new BookingStateCounters();
+        owner = new User(1L, "Владелец", "owner@example.com");
+        booker = new User(2L, "Бронирующий", "booker@example.com");
+        item = new Item(1L, "Вещь", "Описание", true, owner, null);
+    }
+
+    @Test
+    void add_ShouldCountBookingForBookerAndOwner() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.add(booking(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING));
+        counters.add(booking(2L, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+        counters.add(booking(3L, now.minusDays(3), now.minusDays(2), BookingStatus.REJECTED));
+
+        Map<State, Long> bookerCounts = counters.getBookerCounts(booker.getId());
+        assertEquals(3L, bookerCounts.get(State.ALL));
+        assertEquals(1L, bookerCounts.get(State.FUTURE));
+        assertEquals(1L, bookerCounts.get(State.CURRENT));
+        assertEquals(1L, bookerCounts.get(State.PAST));
+        assertEquals(1L, bookerCounts.get(State.WAITING));
+        assertEquals(1L, bookerCounts.get(State.REJECTED));
+
+        Map<State, Long> ownerCounts = counters.getOwnerCounts(owner.getId());
+        assertEquals(3L, ownerCounts.get(State.ALL));
+        assertEquals(2L, ownerCounts.get(State.FUTURE));
+        assertEquals(1L, ownerCounts.get(State.CURRENT));
+    }
+
+    @Test
+    void changeStatus_ShouldMoveBookingBetweenStatusCounters() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = booking(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        counters.add(booking);
+
+        booking.setStatus(BookingStatus.REJECTED);
+        counters.changeStatus(booking, BookingStatus.WAITING);
+
+        Map<State, Long> counts = counters.getBookerCounts(booker.getId());
+        assertEquals(0L, counts.get(State.WAITING));
+        assertEquals(1L, counts.get(State.REJECTED));
+        assertEquals(1L, counts.get(State.ALL));
+    }
+
+    @Test
+    void remove_ShouldUncountCascadeDeletedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking future = booking(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        Booking past = booking(2L, now.minusDays(3), now.minusDays(2), BookingStatus.REJECTED);
+        counters.add(future);
+        counters.add(past);
+        counters.add(booking(3L, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+
+        counters.remove(List.of(counted(future), counted(past)));
+
+        Map<State, Long> bookerCounts = counters.getBookerCounts(booker.getId());
+        assertEquals(1L, bookerCounts.get(State.ALL));
+        assertEquals(0L, bookerCounts.get(State.FUTURE));
+        assertEquals(1L, bookerCounts.get(State.CURRENT));
+        assertEquals(0L, bookerCounts.get(State.PAST));
+        assertEquals(0L, bookerCounts.get(State.WAITING));
+        assertEquals(0L, bookerCounts.get(State.REJECTED));
+        assertEquals(1L, counters.getOwnerCounts(owner.getId()).get(State.ALL));
+
+        assertEquals(1, counters.sweep(now.plusDays(5)));
+        assertEquals(1L, counters.getBookerCounts(booker.getId()).get(State.PAST));
+    }
+
+    @Test
+    void sweep_ShouldMoveBookingsFromFutureToCurrentToPast() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.add(booking(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING));
+
+        assertEquals(0, counters.sweep(now.plusHours(1)));
+        assertEquals(1, counters.sweep(now.plusDays(1).plusHours(1)));
+        assertEquals(1L, counters.getBookerCounts(booker.getId()).get(State.CURRENT));
+        assertEquals(0L, counters.getBookerCounts(booker.getId()).get(State.FUTURE));
+
+        assertEquals(1, counters.sweep(now.plusDays(3)));
+        assertEquals(0L, counters.getBookerCounts(booker.getId()).get(State.CURRENT));
+        assertEquals(1L, counters.getBookerCounts(booker.getId()).get(State.PAST));
+        assertEquals(0, counters.sweep(now.plusDays(4)));
+    }
+
+    @Test
+    void sweep_ShouldMoveFutureBookingStraightToPast() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.add(booking(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING));
+
+        counters.sweep(now.plusDays(3));
+
+        Map<State, Long> counts = counters.getBookerCounts(booker.getId());
+        assertEquals(0L, counts.get(State.FUTURE));
+        assertEquals(0L, counts.get(State.CURRENT));
+        assertEquals(1L, counts.get(State.PAST));
+    }
+
+    @Test
+    void rebuild_ShouldLoadAggregatesAndTrackUnfinishedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking current = booking(1L, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+
+        counters.rebuild(List.of(aggregate(booker.getId(), BookingStatus.APPROVED, 3, 2, 0)),
+                List.of(aggregate(owner.getId(), BookingStatus.APPROVED, 3, 2, 0)), List.of(current), now);
+
+        Map<State, Long> counts = counters.getBookerCounts(booker.getId());
+        assertEquals(3L, counts.get(State.ALL));
+        assertEquals(2L, counts.get(State.PAST));
+        assertEquals(1L, counts.get(State.CURRENT));
+        assertEquals(0L, counts.get(State.WAITING));
+
+        counters.sweep(now.plusDays(2));
+        assertEquals(3L, counters.getOwnerCounts(owner.getId()).get(State.PAST));
+    }
+
+    @Test
+    void getBookerCounts_ShouldReturnZeros_WhenUserHasNoBookings() {
+        Map<State, Long> counts = counters.getBookerCounts(42L);
+
+        assertEquals(State.values().length, counts.size());
+        counts.values().forEach(count -> assertEquals(0L, count));
+    }
+
+    private Booking booking(long id, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return new Booking(id, start, end, item, booker, status);
+    }
+
+    private static CountedBooking counted(Booking booking) {
+        return new CountedBooking() {
+            @Override
+            public Long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return booking.getItem().getOwner().getId();
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return booking.getStatus();
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return booking.getEnd();
+            }
+        };
+    }
+
+    private static BookingStateAggregate aggregate(long userId, BookingStatus status, long total, long past,
+                                                   long future) {
+        return new BookingStateAggregate() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getPast() {
+                return past;
+            }
+
+            @Override
+            public Long getFuture() {
+                return future;
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingStatusEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingExpirySchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2050, 1, 10, 12, 0);
+
+    private BookingRepository bookingRepository;
+    private BookingStateCounters bookingStateCounters;
+    private BookingIntervalIndex bookingIntervalIndex;
+    private OutboxWriter outboxWriter;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        bookingStateCounters = new BookingStateCounters();
+        bookingIntervalIndex = spy(new BookingIntervalIndex());
+        outboxWriter = mock(OutboxWriter.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        User owner = new User(1L, "Владелец", "owner@example.com");
+        booker = new User(2L, "Бронирующий", "booker@example.com");
+        item = new Item(1L, "Вещь", "Описание", true, owner, null);
+    }
+
+    @Test
+    void expire_ShouldTransitionBatchesUntilBacklogIsDrained() {
+        Booking first = waiting(1L);
+        Booking second = waiting(2L);
+        Booking third = waiting(3L);
+        List.of(first, second, third).forEach(bookingStateCounters::add);
+        when(bookingRepository.lockIdsByStatusStartedBefore(BookingStatus.WAITING.name(), NOW, 2))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(bookingRepository.findWithItemAndBookerByIdIn(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(bookingRepository.findWithItemAndBookerByIdIn(List.of(3L))).thenReturn(List.of(third));
+
+        int expired = scheduler(BookingStatus.EXPIRED, 2, 10, Duration.ZERO).expire(NOW);
+
+        assertEquals(3, expired);
+        assertEquals(BookingStatus.EXPIRED, third.getStatus());
+        assertEquals(1L, third.getVersion());
+        verify(bookingRepository).updateStatuses(List.of(1L, 2L), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        verify(bookingRepository).updateStatuses(List.of(3L), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        verify(bookingIntervalIndex, times(3)).release(any(Booking.class));
+        verify(outboxWriter, times(2)).writeAll(eq(OutboxEventType.BOOKING_EXPIRED), anyList(), any());
+        verify(eventPublisher, times(3)).publishEvent(any(BookingStatusEvent.class));
+        assertEquals(0L, bookingStateCounters.getBookerCounts(booker.getId()).get(State.WAITING));
+        assertEquals(0L, bookingStateCounters.getBookerCounts(booker.getId()).get(State.REJECTED));
+        assertEquals(3.0, meterRegistry.get("shareit.bookings.expired").counter().count());
+    }
+
+    @Test
+    void expire_ShouldStopAfterMaxBatches() {
+        when(bookingRepository.lockIdsByStatusStartedBefore(BookingStatus.WAITING.name(), NOW, 1))
+                .thenReturn(List.of(1L), List.of(2L), List.of(3L));
+        when(bookingRepository.findWithItemAndBookerByIdIn(anyCollection()))
+                .thenReturn(List.of(waiting(1L)), List.of(waiting(2L)), List.of(waiting(3L)));
+
+        int expired = scheduler(BookingStatus.EXPIRED, 1, 2, Duration.ZERO).expire(NOW);
+
+        assertEquals(2, expired);
+        verify(bookingRepository, times(2)).updateStatuses(anyCollection(), any(), any());
+    }
+
+    @Test
+    void expire_ShouldUseGracePeriodAndRejectedStatus() {
+        Booking booking = waiting(1L);
+        bookingStateCounters.add(booking);
+        when(bookingRepository.lockIdsByStatusStartedBefore(BookingStatus.WAITING.name(), NOW.minusHours(1), 10))
+                .thenReturn(List.of(1L));
+        when(bookingRepository.findWithItemAndBookerByIdIn(List.of(1L))).thenReturn(List.of(booking));
+
+        scheduler(BookingStatus.REJECTED, 10, 10, Duration.ofHours(1)).expire(NOW);
+
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        assertEquals(1L, bookingStateCounters.getBookerCounts(booker.getId()).get(State.REJECTED));
+        verify(outboxWriter).writeAll(eq(OutboxEventType.BOOKING_REJECTED), anyList(), any());
+    }
+
+    @Test
+    void expire_ShouldNotLoadBookings_WhenNothingLocked() {
+        when(bookingRepository.lockIdsByStatusStartedBefore(BookingStatus.WAITING.name(), NOW, 10))
+                .thenReturn(List.of());
+
+        assertEquals(0, scheduler(BookingStatus.EXPIRED, 10, 10, Duration.ZERO).expire(NOW));
+        verify(bookingRepository, never()).findWithItemAndBookerByIdIn(anyCollection());
+        verify(bookingRepository, never()).updateStatuses(anyCollection(), any(), any());
+    }
+
+    @Test
+    void constructor_ShouldRejectUnsupportedTargetStatus() {
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduler(BookingStatus.APPROVED, 10, 10, Duration.ZERO));
+    }
+
+    private BookingExpiryScheduler scheduler(BookingStatus target, int batchSize, int maxBatches, Duration grace) {
+        return new BookingExpiryScheduler(bookingRepository, bookingIntervalIndex, bookingStateCounters,
+                outboxWriter, eventPublisher, transactionTemplate, meterRegistry, target, batchSize, maxBatches, grace);
+    }
+
+    private Booking waiting(long id) {
+        return new Booking(id, NOW.minusDays(1), NOW.plusDays(1), item, booker, BookingStatus.WAITING, 0L);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.NotAvailableException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2050, 1, 10, 12, 0);
+
+    private BookingIntervalIndex index;
+    private Item item;
+    private Item otherItem;
+    private AtomicLong ids;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex();
+        User owner = new User(1L, "Владелец", "owner@example.com");
+        item = new Item(1L, "Предмет", "Описание", true, owner, null);
+        otherItem = new Item(2L, "Другой предмет", "Описание", true, owner, null);
+        ids = new AtomicLong();
+    }
+
+    @Test
+    void reserve_ShouldAcceptAdjacentIntervals() {
+        index.reserve(booking(item, START, START.plusDays(1)), this::save);
+        index.reserve(booking(item, START.plusDays(1), START.plusDays(2)), this::save);
+
+        assertDoesNotThrow(() -> index.reserve(booking(item, START.minusDays(1), START), this::save));
+    }
+
+    @Test
+    void reserve_ShouldRejectOverlappingIntervalOfSameItem() {
+        index.reserve(booking(item, START, START.plusDays(3)), this::save);
+
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(item, START.plusDays(1), START.plusDays(2)), this::save));
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(item, START.minusDays(1), START.plusHours(1)), this::save));
+        assertDoesNotThrow(() -> index.reserve(booking(otherItem, START, START.plusDays(3)), this::save));
+    }
+
+    @Test
+    void reserve_ShouldNotWriteBooking_WhenIntervalIsTaken() {
+        index.reserve(booking(item, START, START.plusDays(3)), this::save);
+        long saved = ids.get();
+
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(item, START, START.plusDays(1)), this::save));
+        assertEquals(saved, ids.get());
+    }
+
+    @Test
+    void release_ShouldFreeInterval() {
+        Booking booking = index.reserve(booking(item, START, START.plusDays(3)), this::save);
+
+        index.release(booking);
+
+        assertDoesNotThrow(() -> index.reserve(booking(item, START, START.plusDays(3)), this::save));
+    }
+
+    @Test
+    void rebuild_ShouldKeepIntervalsReservedAfterSnapshot() {
+        index.reserve(booking(item, START, START.plusDays(3)), this::save);
+        Booking existing = booking(otherItem, START, START.plusDays(1));
+        existing.setId(100L);
+
+        index.rebuild(List.of(existing));
+
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(item, START, START.plusDays(3)), this::save));
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(otherItem, START, START.plusHours(1)), this::save));
+    }
+
+    @Test
+    void reserve_ShouldEvictEndedIntervalsOfSameItem() {
+        LocalDateTime past = LocalDateTime.now().minusDays(10);
+        index.reserve(booking(item, past, past.plusDays(1)), this::save);
+        index.reserve(booking(item, past.plusDays(2), past.plusDays(3)), this::save);
+
+        index.reserve(booking(item, START, START.plusDays(1)), this::save);
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void pruneEnded_ShouldEvictOnlyIntervalsEndedBeforeNow() {
+        index.reserve(booking(item, START, START.plusDays(1)), this::save);
+        index.reserve(booking(item, START.plusDays(2), START.plusDays(3)), this::save);
+        index.reserve(booking(otherItem, START, START.plusDays(5)), this::save);
+
+        assertEquals(1, index.pruneEnded(START.plusDays(1)));
+
+        assertEquals(2, index.size());
+        assertDoesNotThrow(() -> index.reserve(booking(item, START, START.plusDays(1)), this::save));
+        assertThrows(NotAvailableException.class,
+                () -> index.reserve(booking(item, START.plusDays(2), START.plusDays(3)), this::save));
+    }
+
+    @Test
+    void rebuild_ShouldSkipEndedBookings() {
+        LocalDateTime past = LocalDateTime.now().minusDays(10);
+        Booking ended = booking(item, past, past.plusDays(1));
+        ended.setId(100L);
+        Booking active = booking(item, START, START.plusDays(1));
+        active.setId(101L);
+
+        index.rebuild(List.of(ended, active));
+
+        assertEquals(1, index.size());
+    }
+
+    private Booking booking(Item bookedItem, LocalDateTime start, LocalDateTime end) {
+        return new Booking(0L, start, end, bookedItem, null, BookingStatus.WAITING);
+    }
+
+    private Booking save(Booking booking) {
+        booking.setId(ids.incrementAndGet());
+        return booking;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemAvailabilityIndexTest {
+    private static final LocalDate MONTH = LocalDate.of(2050, 1, 1);
+
+    private ItemAvailabilityIndex index;
+    private Item item;
+    private Item otherItem;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemAvailabilityIndex();
+        User owner = new User(1L, "Владелец", "owner@example.com");
+        item = new Item(1L, "Предмет", "Описание", true, owner, null);
+        otherItem = new Item(2L, "Другой предмет", "Описание", true, owner, null);
+    }
+
+    @Test
+    void getBookedDays_ShouldMarkEveryDayTouchedByBooking() {
+        index.add(booking(1L, item, MONTH.plusDays(2).atTime(12, 0), MONTH.plusDays(4).atTime(10, 0)));
+
+        BitSet booked = index.getBookedDays(item.getId(), MONTH, MONTH.plusDays(30));
+
+        assertEquals(bits(2, 3, 4), booked);
+        assertTrue(index.getBookedDays(otherItem.getId(), MONTH, MONTH.plusDays(30)).isEmpty());
+    }
+
+    @Test
+    void getBookedDays_ShouldNotMarkDayStartingAtBookingEnd() {
+        index.add(booking(1L, item, MONTH.atTime(10, 0), MONTH.plusDays(1).atStartOfDay()));
+
+        assertEquals(bits(0), index.getBookedDays(item.getId(), MONTH, MONTH.plusDays(3)));
+    }
+
+    @Test
+    void getBookedDays_ShouldCoverBookingsFarApartAndAcrossWords() {
+        index.add(booking(1L, item, MONTH.plusDays(300).atTime(9, 0), MONTH.plusDays(300).atTime(18, 0)));
+        index.add(booking(2L, item, MONTH.minusDays(70).atTime(9, 0), MONTH.minusDays(60).atTime(18, 0)));
+        index.add(booking(3L, item, MONTH.minusDays(1).atTime(9, 0), MONTH.plusDays(1).atTime(18, 0)));
+
+        assertEquals(bits(0, 1, 2), index.getBookedDays(item.getId(), MONTH.minusDays(1), MONTH.plusDays(5)));
+        assertEquals(bits(0), index.getBookedDays(item.getId(), MONTH.plusDays(300), MONTH.plusDays(330)));
+        assertEquals(11, index.getBookedDays(item.getId(), MONTH.minusDays(80), MONTH.minusDays(50))
+                .cardinality());
+    }
+
+    @Test
+    void remove_ShouldKeepDaysSharedWithOtherBooking() {
+        Booking morning = booking(1L, item, MONTH.atTime(8, 0), MONTH.atTime(12, 0));
+        Booking evening = booking(2L, item, MONTH.atTime(14, 0), MONTH.plusDays(1).atTime(12, 0));
+        index.add(morning);
+        index.add(evening);
+
+        index.remove(evening);
+
+        assertEquals(bits(0), index.getBookedDays(item.getId(), MONTH, MONTH.plusDays(3)));
+
+        index.remove(morning);
+
+        assertTrue(index.getBookedDays(item.getId(), MONTH, MONTH.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepDaysMarkedAfterSnapshot() {
+        index.add(booking(1L, item, MONTH.atTime(8, 0), MONTH.atTime(12, 0)));
+
+        index.rebuild(List.of(booking(2L, otherItem, MONTH.plusDays(5).atTime(8, 0),
+                MONTH.plusDays(5).atTime(12, 0))));
+
+        assertEquals(bits(0), index.getBookedDays(item.getId(), MONTH, MONTH.plusDays(30)));
+        assertEquals(bits(5), index.getBookedDays(otherItem.getId(), MONTH, MONTH.plusDays(30)));
+    }
+
+    private static BitSet bits(int... days) {
+        BitSet result = new BitSet();
+        for (int day : days) {
+            result.set(day);
+        }
+        return result;
+    }
+
+    private static Booking booking(long id, Item item, LocalDateTime start, LocalDateTime end) {
+        return new Booking(id, start, end, item, item.getOwner(), BookingStatus.APPROVED);
+    }
+}
@@ -1,29 +1,49 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.ItemAvailabilityIndex;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingDecisionRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingStatusEvent;
+import ru.practicum.shareit.booking.stream.BookingStatusSubscribers;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemBookingDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,9 +55,25 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private BookingDecisionRepository bookingDecisionRepository;
+    @Mock
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private BookingStatusSubscribers bookingStatusSubscribers;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex();
+    @Spy
+    private BookingStateCounters bookingStateCounters = new BookingStateCounters();
+    @Spy
+    private ItemAvailabilityIndex itemAvailabilityIndex = new ItemAvailabilityIndex();
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -66,6 +102,7 @@ class BookingServiceImplTest {
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
+        booking.setVersion(0L);
         booking.setStart(bookingCreateDto.getStart());
         booking.setEnd(bookingCreateDto.getEnd());
 
@@ -90,6 +127,7 @@ class BookingServiceImplTest {
         assertEquals(bookingDto.getId(), result.getId());
         assertEquals(BookingStatus.WAITING, result.getStatus());
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(outboxWriter, times(1)).write(OutboxEventType.BOOKING_CREATED, 1L, result);
     }
 
     @Test
@@ -124,33 +162,164 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void itemOwnerBookingSolution_ShouldApproveBooking_WhenOwnerIsCorrect() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+    void createBooking_ShouldThrowNotAvailableException_WhenIntervalIsAlreadyBooked() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        bookingService.createBooking(bookingCreateDto, 1L);
+
+        bookingCreateDto.setStart(bookingCreateDto.getStart().plusDays(1));
+        bookingCreateDto.setEnd(bookingCreateDto.getEnd().plusDays(1));
+        NotAvailableException exception = assertThrows(NotAvailableException.class,
+                () -> bookingService.createBooking(bookingCreateDto, 1L));
+        assertTrue(exception.getMessage().contains("уже забронирован"));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookings_ShouldInsertAcceptedEntriesInOneBatch() {
+        BookingCreateDto overlapping = new BookingCreateDto(1L, bookingCreateDto.getStart().plusHours(1),
+                bookingCreateDto.getEnd().plusDays(1), 0L);
+        BookingCreateDto missingItem = new BookingCreateDto(2L, bookingCreateDto.getStart(),
+                bookingCreateDto.getEnd(), 0L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(saved -> saved.setId(10L));
+            return List.copyOf(bookings);
+        });
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(
+                List.of(bookingCreateDto, overlapping, missingItem), 1L);
+
+        assertEquals(3, results.size());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getBooking().getId());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals(404, results.get(2).getStatus());
+        verify(bookingRepository, times(1)).saveAll(argThat((List<Booking> bookings) -> bookings.size() == 1));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldApproveBooking_WhenOwnerIsCorrect() {
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
 
         BookingDto result = bookingService.itemOwnerBookingSolution(1L, 1L, true);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
-        verify(bookingRepository, times(1)).save(any(Booking.class));
+        assertEquals(1L, booking.getVersion());
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        assertFalse(itemAvailabilityIndex.getBookedDays(1L, booking.getStart().toLocalDate(),
+                booking.getEnd().toLocalDate()).isEmpty());
+        verify(eventPublisher).publishEvent(new BookingStatusEvent(booking.getBooker().getId(), 1L, result));
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldThrowAlreadyExistsException_WhenBookingAlreadyDecided() {
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(0);
+
+        assertThrows(AlreadyExistsException.class,
+                () -> bookingService.itemOwnerBookingSolution(1L, 1L, false));
+        verify(bookingStateCounters, never()).changeStatus(any(Booking.class), any(BookingStatus.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldThrowAlreadyExistsException_WhenVersionIsStale() {
+        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        assertThrows(AlreadyExistsException.class,
+                () -> bookingService.itemOwnerBookingSolution(1L, 1L, false));
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldThrowNotAvailableException_WhenExclusionConstraintViolated() {
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("conflicting key value", "23P01")));
+
+        assertThrows(NotAvailableException.class,
+                () -> bookingService.itemOwnerBookingSolution(1L, 1L, true));
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldThrowNotAvailableException_WhenBookingExpired() {
+        booking.setStatus(BookingStatus.EXPIRED);
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+
+        NotAvailableException exception = assertThrows(NotAvailableException.class,
+                () -> bookingService.itemOwnerBookingSolution(1L, 1L, true));
+        assertTrue(exception.getMessage().contains("просрочено"));
+        assertEquals(BookingStatus.EXPIRED, booking.getStatus());
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(bookingIntervalIndex, never()).reserve(any(Booking.class), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldRethrow_WhenOtherIntegrityViolation() {
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("foreign key violation", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.itemOwnerBookingSolution(1L, 1L, true));
     }
 
     @Test
     void itemOwnerBookingSolution_ShouldRejectBooking_WhenApprovedIsFalse() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
 
         BookingDto result = bookingService.itemOwnerBookingSolution(1L, 1L, false);
 
         assertEquals(BookingStatus.REJECTED, result.getStatus());
     }
 
+    @Test
+    void itemOwnerBookingsSolution_ShouldBuildResponseFromUpdatedRows() {
+        bookingDto.setStatus(BookingStatus.APPROVED);
+        when(bookingDecisionRepository.updateOwnerBookingsStatus(List.of(1L, 2L), 1L, BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(List.of(bookingDto));
+
+        List<BookingDto> result = bookingService.itemOwnerBookingsSolution(List.of(1L, 2L), 1L, true);
+
+        assertEquals(1, result.size());
+        assertEquals(BookingStatus.APPROVED, result.getFirst().getStatus());
+        assertFalse(itemAvailabilityIndex.getBookedDays(1L, bookingDto.getStart().toLocalDate(),
+                bookingDto.getEnd().toLocalDate()).isEmpty());
+        verify(eventPublisher, times(1)).publishEvent(any(BookingStatusEvent.class));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void itemOwnerBookingsSolution_ShouldReturnEmptyList_WhenNothingToDecide() {
+        when(bookingDecisionRepository.updateOwnerBookingsStatus(List.of(1L), 2L, BookingStatus.WAITING,
+                BookingStatus.REJECTED)).thenReturn(List.of());
+
+        List<BookingDto> result = bookingService.itemOwnerBookingsSolution(List.of(1L), 2L, false);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(eventPublisher);
+        verify(bookingIntervalIndex, never()).release(anyLong(), anyLong(), any(), any());
+    }
+
     @Test
     void itemOwnerBookingSolution_ShouldThrowNotAvailableException_WhenNotOwner() {
         User anotherOwner = new User(2L, "Петр", "petr@example.com");
         item.setOwner(anotherOwner);
         booking.setItem(item);
 
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
 
         NotAvailableException exception = assertThrows(NotAvailableException.class,
                 () -> bookingService.itemOwnerBookingSolution(1L, 1L, true));
@@ -190,9 +359,9 @@ class BookingServiceImplTest {
     @Test
     void getAllUserBookings_ShouldReturnAllBookings_WhenStateIsALL() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerId(1L)).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByBookerId(1L, Limit.of(20))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.ALL);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.ALL, null, null, 20);
 
         assertEquals(1, result.size());
         assertEquals(BookingStatus.WAITING, result.get(0).getStatus());
@@ -201,11 +370,34 @@ class BookingServiceImplTest {
     @Test
     void getAllUserBookings_ShouldReturnPastBookings_WhenStateIsPAST() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findPastByBookerId(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findPastByBookerId(eq(1L), any(LocalDateTime.class), eq(Limit.of(20)))).thenReturn(List.of(booking));
+
+        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.PAST, null, null, 20);
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void getAllUserBookings_ShouldReadNextPageAfterCursor() {
+        LocalDateTime cursorEnd = LocalDateTime.of(2050, 1, 1, 11, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingRepository.findPastByBookerIdAfterCursor(eq(1L), any(LocalDateTime.class), eq(cursorEnd),
+                eq(5L), eq(Limit.of(20)))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.PAST);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.PAST, cursorEnd,
+                5L, 20);
 
         assertEquals(1, result.size());
+        verify(bookingRepository, never()).findPastByBookerId(anyLong(), any(), any());
+    }
+
+    @Test
+    void getOwnerItemsBookings_ShouldThrowNotAvailableException_WhenCursorIsIncomplete() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(NotAvailableException.class, () -> bookingService.getOwnerItemsBookings(1L, State.ALL,
+                LocalDateTime.of(2050, 1, 1, 11, 0), null, 20));
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -213,16 +405,16 @@ class BookingServiceImplTest {
         when(userRepository.findById(100L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> bookingService.getAllUserBookings(100L, State.ALL));
+                () -> bookingService.getAllUserBookings(100L, State.ALL, null, null, 20));
         assertTrue(exception.getMessage().contains("Пользователя с id=100 не существует"));
     }
 
     @Test
     void getAllUserBookings_ShouldReturnWaitingBookings_WhenStateIsWAITING() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findWaitingOrRejectedByBookerId(1L, "WAITING")).thenReturn(List.of(booking));
+        when(bookingRepository.findWaitingOrRejectedByBookerId(1L, BookingStatus.WAITING, Limit.of(20))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.WAITING);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.WAITING, null, null, 20);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -233,9 +425,9 @@ class BookingServiceImplTest {
     void getAllUserBookings_ShouldReturnRejectedBookings_WhenStateIsREJECTED() {
         booking.setStatus(BookingStatus.REJECTED);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findWaitingOrRejectedByBookerId(1L, "REJECTED")).thenReturn(List.of(booking));
+        when(bookingRepository.findWaitingOrRejectedByBookerId(1L, BookingStatus.REJECTED, Limit.of(20))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.REJECTED);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getAllUserBookings(1L, State.REJECTED, null, null, 20);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -247,7 +439,7 @@ class BookingServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         Exception exception = assertThrows(Exception.class,
-                () -> bookingService.getAllUserBookings(1L, null));
+                () -> bookingService.getAllUserBookings(1L, null, null, null, 20));
 
         assertNotNull(exception);
     }
@@ -255,9 +447,9 @@ class BookingServiceImplTest {
     @Test
     void getOwnerItemsBookings_ShouldReturnAllBookings_WhenStateIsALL() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByOwnerId(1L)).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByOwnerId(1L, Limit.of(20))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getOwnerItemsBookings(1L, State.ALL);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getOwnerItemsBookings(1L, State.ALL, null, null, 20);
 
         assertEquals(1, result.size());
     }
@@ -265,12 +457,63 @@ class BookingServiceImplTest {
     @Test
     void getOwnerItemsBookings_ShouldReturnFutureBookings_WhenStateIsFUTURE() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findFutureByOwnerId(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findFutureByOwnerId(eq(1L), any(LocalDateTime.class), eq(Limit.of(20)))).thenReturn(List.of(booking));
 
-        List<BookingDto> result = (List<BookingDto>) bookingService.getOwnerItemsBookings(1L, State.FUTURE);
+        List<BookingDto> result = (List<BookingDto>) bookingService.getOwnerItemsBookings(1L, State.FUTURE, null, null, 20);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(booking.getId(), result.get(0).getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportOwnerBookings_ShouldPassEveryBookingToAction() {
+        Booking other = new Booking(2L, booking.getStart(), booking.getEnd(), item, user, BookingStatus.APPROVED);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingRepository.streamAllByOwnerId(1L)).thenReturn(Stream.of(booking, other));
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.exportOwnerBookings(1L, exported::add);
+
+        assertEquals(List.of(1L, 2L), exported.stream().map(BookingDto::getId).toList());
+    }
+
+    @Test
+    void exportOwnerBookings_ShouldThrowNotFoundException_WhenUserNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.exportOwnerBookings(1L, bookingDto -> {
+        }));
+        verify(bookingRepository, never()).streamAllByOwnerId(anyLong());
+    }
+
+    @Test
+    void getUserBookingCounts_ShouldCountCreatedBooking() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        bookingService.createBooking(bookingCreateDto, 1L);
+
+        Map<State, Long> counts = bookingService.getUserBookingCounts(1L);
+
+        assertEquals(1L, counts.get(State.ALL));
+        assertEquals(1L, counts.get(State.WAITING));
+        assertEquals(1L, counts.get(State.FUTURE));
+        assertEquals(0L, counts.get(State.PAST));
+    }
+
+    @Test
+    void getOwnerBookingCounts_ShouldThrowNotFoundException_WhenUserNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookingCounts(1L));
+    }
+
+    @Test
+    void subscribeToStatusChanges_ShouldThrowNotFoundException_WhenUserNotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> bookingService.subscribeToStatusChanges(1L));
+        verify(bookingStatusSubscribers, never()).subscribe(anyLong());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.item.model.dto.ItemBookingDto;
+import ru.practicum.shareit.user.model.dto.UserDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class BookingStatusSubscribersTest {
+    private BookingStatusSubscribers subscribers;
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+    private BookingDto bookingDto;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        subscribers = new BookingStatusSubscribers(Jackson2ObjectMapperBuilder.json().build(),
+                meterRegistry, 60_000L, 60_000L, 32, Runnable::run);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(subscribers)).build();
+        bookingDto = new BookingDto(7L, LocalDateTime.of(2050, 1, 1, 10, 0),
+                LocalDateTime.of(2050, 1, 1, 11, 0), new ItemBookingDto(1L, "Вещь", "Владелец"),
+                new UserDto(2L, "Бронирующий", "booker@example.com"), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onStatusChanged_ShouldSendEventToBookerAndOwnerOnly() throws Exception {
+        MvcResult owner = subscribe(1L);
+        MvcResult booker = subscribe(2L);
+        MvcResult stranger = subscribe(3L);
+
+        subscribers.onStatusChanged(new BookingStatusEvent(2L, 1L, bookingDto));
+
+        String body = booker.getResponse().getContentAsString();
+        assertTrue(body.contains("event:" + BookingStatusSubscribers.EVENT_NAME));
+        assertTrue(body.contains("id:7:APPROVED"));
+        assertTrue(body.contains("\"status\":\"APPROVED\""));
+        assertEquals(body, owner.getResponse().getContentAsString());
+        assertEquals("", stranger.getResponse().getContentAsString());
+        assertEquals(3, subscribers.getSubscriberCount());
+        assertEquals(3.0, meterRegistry.get("shareit.bookings.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void heartbeat_ShouldSendCommentToEverySubscription() throws Exception {
+        MvcResult first = subscribe(1L);
+        MvcResult second = subscribe(1L);
+
+        subscribers.heartbeat();
+
+        assertEquals(":heartbeat\n\n", first.getResponse().getContentAsString());
+        assertEquals(":heartbeat\n\n", second.getResponse().getContentAsString());
+    }
+
+    @Test
+    void onStatusChanged_ShouldDropCompletedSubscription() {
+        SseEmitter emitter = subscribers.subscribe(2L);
+        emitter.complete();
+
+        subscribers.onStatusChanged(new BookingStatusEvent(2L, 1L, bookingDto));
+
+        assertEquals(0, subscribers.getSubscriberCount());
+    }
+
+    @Test
+    void onStatusChanged_ShouldNotWaitForSlowSubscriptionAndDropItAfterWriteTimeout() throws Exception {
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        BookingStatusSubscribers slowSubscribers = new BookingStatusSubscribers(
+                Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 60_000L, 50L, 32, sender);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        slowSubscribers.subscribe(2L, new SseEmitter() {
+            @Override
+            public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+                writeStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(1),
+                    () -> slowSubscribers.onStatusChanged(new BookingStatusEvent(2L, 1L, bookingDto)));
+            assertTrue(writeStarted.await(1, TimeUnit.SECONDS));
+            Thread.sleep(100);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(1), slowSubscribers::heartbeat);
+
+            assertEquals(0, slowSubscribers.getSubscriberCount());
+        } finally {
+            release.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void heartbeat_ShouldDropSubscription_WhenTooManyMessagesPending() {
+        BookingStatusSubscribers queuedSubscribers = new BookingStatusSubscribers(
+                Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 60_000L, 60_000L, 2,
+                task -> {
+                });
+        queuedSubscribers.subscribe(1L);
+
+        queuedSubscribers.heartbeat();
+        queuedSubscribers.heartbeat();
+        assertEquals(1, queuedSubscribers.getSubscriberCount());
+        queuedSubscribers.heartbeat();
+
+        assertEquals(0, queuedSubscribers.getSubscriberCount());
+    }
+
+    private MvcResult subscribe(long userId) throws Exception {
+        return mockMvc.perform(get("/stream/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    @RestController
+    static class StreamController {
+        private final BookingStatusSubscribers subscribers;
+
+        StreamController(BookingStatusSubscribers subscribers) {
+            this.subscribers = subscribers;
+        }
+
+        @GetMapping("/stream/{userId}")
+        SseEmitter stream(@PathVariable long userId) {
+            return subscribers.subscribe(userId);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.integration.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.expiry.BookingExpiryScheduler;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "shareit.bookings.expiry.enabled=true",
+        "shareit.bookings.expiry.interval=3600000",
+        "shareit.bookings.expiry.batch-size=2"
+})
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingExpiryIntegrationTest {
+
+    @Autowired
+    private BookingExpiryScheduler bookingExpiryScheduler;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(new User(0L, "Владелец", "owner@example.com"));
+        booker = userRepository.save(new User(0L, "Бронирующий", "booker@example.com"));
+        item = itemRepository.save(new Item(0L, "Вещь", "Описание", true, owner, null));
+    }
+
+    @Test
+    void expire_ShouldExpireOnlyStartedWaitingBookingsAndFreeTheirIntervals() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingDto stale = bookingService.createBooking(new BookingCreateDto(item.getId(), start,
+                start.plusDays(1), 0L), booker.getId());
+        BookingDto staleToo = bookingService.createBooking(new BookingCreateDto(item.getId(), start.plusDays(2),
+                start.plusDays(3), 0L), booker.getId());
+        BookingDto stillWaiting = bookingService.createBooking(new BookingCreateDto(item.getId(),
+                start.plusDays(10), start.plusDays(11), 0L), booker.getId());
+        Booking approved = bookingRepository.save(new Booking(0L, start.minusDays(5), start.minusDays(4), item,
+                booker, BookingStatus.APPROVED));
+
+        int expired = bookingExpiryScheduler.expire(start.plusDays(5));
+
+        assertEquals(2, expired);
+        assertEquals(BookingStatus.EXPIRED, bookingRepository.findById(stale.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.EXPIRED, bookingRepository.findById(staleToo.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING,
+                bookingRepository.findById(stillWaiting.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).orElseThrow().getStatus());
+        assertEquals(1L, bookingService.getUserBookingCounts(booker.getId()).get(State.WAITING));
+        assertDoesNotThrow(() -> bookingService.createBooking(new BookingCreateDto(item.getId(), start,
+                start.plusDays(1), 0L), booker.getId()));
+    }
+}
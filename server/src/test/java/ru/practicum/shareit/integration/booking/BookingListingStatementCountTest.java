@@ -0,0 +1,94 @@
+package ru.practicum.shareit.integration.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingListingStatementCountTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(0L, "Владелец", "owner@example.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            User booker = userRepository.save(new User(0L, "Бронирующий " + i, "booker" + i + "@example.com"));
+            Item item = itemRepository.save(new Item(0L, "Вещь " + i, "Описание", true, owner, null));
+            bookingRepository.save(new Booking(0L, start.plusDays(i), start.plusDays(i).plusHours(1), item, booker,
+                    BookingStatus.WAITING));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getOwnerItemsBookings_ShouldNotLoadAssociationsPerBooking() {
+        Collection<BookingDto> result = bookingService.getOwnerItemsBookings(owner.getId(), State.ALL,
+                null, null, 20);
+
+        assertEquals(5, result.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllUserBookings_ShouldNotLoadAssociationsPerBooking() {
+        long bookerId = bookingRepository.findAll().getFirst().getBooker().getId();
+        entityManager.clear();
+        statistics.clear();
+
+        Collection<BookingDto> result = bookingService.getAllUserBookings(bookerId, State.FUTURE,
+                null, null, 20);
+
+        assertEquals(1, result.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
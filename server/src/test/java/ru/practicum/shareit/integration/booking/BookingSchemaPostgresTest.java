@@ -0,0 +1,158 @@
+package ru.practicum.shareit.integration.booking;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.NotAvailableException;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Схема PostgreSQL, созданная миграциями Flyway: таблица bookings не секционирована и защищена одним
+ * ограничением исключения для подтверждённых бронирований. Hibernate проверяет соответствие схемы сущностям
+ * (ddl-auto=validate). Запускается в контейнере PostgreSQL и пропускается, если Docker недоступен.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true"})
+@Testcontainers(disabledWithoutDocker = true)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingSchemaPostgresTest {
+    private static final LocalDateTime START = LocalDateTime.of(2050, 1, 10, 12, 0);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email) VALUES ('Владелец', 'owner@example.com') RETURNING id", Long.class);
+        bookerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email) VALUES ('Бронирующий', 'booker@example.com') RETURNING id",
+                Long.class);
+        itemId = jdbcTemplate.queryForObject("INSERT INTO items (name, description, available, owner_id) "
+                + "VALUES ('Дрель', 'Ударная дрель', true, ?) RETURNING id", Long.class, ownerId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE users, items, bookings, bookings_archive, outbox_events CASCADE");
+    }
+
+    @Test
+    void migrations_ShouldAllBeAppliedSuccessfully() {
+        MigrationInfo[] applied = flyway.info().applied();
+
+        assertEquals(0, flyway.info().pending().length);
+        assertTrue(applied.length > 1);
+        for (MigrationInfo migration : applied) {
+            assertTrue(migration.getState().isApplied() && !migration.getState().isFailed(),
+                    migration.getScript());
+        }
+    }
+
+    @Test
+    void bookings_ShouldBePlainTableWithSingleExclusionConstraintAndNoTriggers() {
+        assertEquals("r", jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'bookings'::regclass", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'bookings'::regclass", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_trigger WHERE tgrelid = 'bookings'::regclass AND NOT tgisinternal",
+                Integer.class));
+        List<String> exclusions = jdbcTemplate.queryForList("SELECT pg_get_constraintdef(oid) FROM pg_constraint "
+                + "WHERE conrelid = 'bookings'::regclass AND contype = 'x'", String.class);
+        assertEquals(1, exclusions.size());
+        assertTrue(exclusions.getFirst().startsWith("EXCLUDE USING gist (item_id WITH =, period WITH &&)"),
+                exclusions.getFirst());
+        assertTrue(exclusions.getFirst().contains("'APPROVED'"), exclusions.getFirst());
+        assertEquals("bookings_seq", jdbcTemplate.queryForObject(
+                "SELECT pg_get_serial_sequence('bookings', 'id')::regclass::text", String.class));
+    }
+
+    @Test
+    void exclusionConstraint_ShouldRejectOverlappingApprovedBookingsOnly() {
+        insertBooking(START, START.plusDays(3), BookingStatus.APPROVED);
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> insertBooking(START.plusDays(1), START.plusDays(4), BookingStatus.APPROVED));
+        assertEquals("23P01", ((SQLException) e.getMostSpecificCause()).getSQLState());
+        assertDoesNotThrow(() -> insertBooking(START.plusDays(1), START.plusDays(4), BookingStatus.WAITING));
+        assertDoesNotThrow(() -> insertBooking(START.plusDays(3), START.plusDays(5), BookingStatus.APPROVED));
+    }
+
+    @Test
+    void itemOwnerBookingsSolution_ShouldReturnUpdatedRows_WhenApprovedOnPostgres() {
+        long first = insertBooking(START, START.plusDays(1), BookingStatus.WAITING);
+        long second = insertBooking(START.plusDays(2), START.plusDays(3), BookingStatus.WAITING);
+
+        List<BookingDto> approved = bookingService.itemOwnerBookingsSolution(List.of(first, second), ownerId, true);
+
+        assertEquals(2, approved.size());
+        for (BookingDto booking : approved) {
+            assertEquals(BookingStatus.APPROVED, booking.getStatus());
+            assertEquals("Дрель", booking.getItem().getName());
+            assertEquals("Владелец", booking.getItem().getOwnerName());
+            assertEquals(bookerId, booking.getBooker().getId());
+        }
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE status = 'APPROVED' AND version = 1", Integer.class));
+    }
+
+    @Test
+    void itemOwnerBookingsSolution_ShouldThrowNotAvailableException_WhenApprovalsOverlap() {
+        long first = insertBooking(START, START.plusDays(2), BookingStatus.WAITING);
+        long second = insertBooking(START.plusDays(1), START.plusDays(3), BookingStatus.WAITING);
+
+        assertThrows(NotAvailableException.class,
+                () -> bookingService.itemOwnerBookingsSolution(List.of(first, second), ownerId, true));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE status = 'APPROVED'", Integer.class));
+    }
+
+    private long insertBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?) RETURNING id", Long.class, start, end, itemId, bookerId, status.name());
+    }
+}
@@ -7,19 +7,31 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingCountersInitializer;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.*;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,6 +50,13 @@ class BookingServiceIntegrationTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+
+    @Autowired
+    private ItemService itemService;
+
     private User owner;
     private User booker;
     private Item item;
@@ -176,7 +195,7 @@ class BookingServiceIntegrationTest {
         BookingCreateDto dto = new BookingCreateDto(item.getId(), start, end, 0L);
         bookingService.createBooking(dto, booker.getId());
 
-        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.ALL);
+        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.ALL, null, null, 20);
 
         assertEquals(1, result.size());
     }
@@ -188,7 +207,7 @@ class BookingServiceIntegrationTest {
         BookingCreateDto dto = new BookingCreateDto(item.getId(), start, end, 0L);
         bookingService.createBooking(dto, booker.getId());
 
-        Collection<BookingDto> result = bookingService.getOwnerItemsBookings(owner.getId(), State.FUTURE);
+        Collection<BookingDto> result = bookingService.getOwnerItemsBookings(owner.getId(), State.FUTURE, null, null, 20);
 
         assertEquals(1, result.size());
     }
@@ -200,7 +219,7 @@ class BookingServiceIntegrationTest {
         BookingCreateDto dto = new BookingCreateDto(item.getId(), start, end, 0L);
         bookingService.createBooking(dto, booker.getId());
 
-        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.CURRENT);
+        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.CURRENT, null, null, 20);
 
         assertEquals(1, result.size());
     }
@@ -212,8 +231,210 @@ class BookingServiceIntegrationTest {
         BookingCreateDto dto = new BookingCreateDto(item.getId(), start, end, 0L);
         bookingService.createBooking(dto, booker.getId());
 
-        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.PAST);
+        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.PAST, null, null, 20);
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void getOwnerItemsBookings_WithCursor_ShouldReturnNextPageOrderedByEndAndId() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto first = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusHours(1), 0L), booker.getId());
+        BookingDto second = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusHours(2), start.plusHours(3), 0L), booker.getId());
+        BookingDto third = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusHours(4), start.plusHours(5), 0L), booker.getId());
+
+        List<BookingDto> firstPage = List.copyOf(
+                bookingService.getOwnerItemsBookings(owner.getId(), State.ALL, null, null, 2));
+        BookingDto last = firstPage.getLast();
+        List<BookingDto> secondPage = List.copyOf(
+                bookingService.getOwnerItemsBookings(owner.getId(), State.ALL, last.getEnd(), last.getId(), 2));
+
+        assertEquals(List.of(third.getId(), second.getId()), firstPage.stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(first.getId()), secondPage.stream().map(BookingDto::getId).toList());
+    }
+
+    @Test
+    void getAllUserBookings_WithStateWAITING_ShouldPageByCursor() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto first = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusHours(1), 0L), booker.getId());
+        BookingDto second = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusHours(2), start.plusHours(3), 0L), booker.getId());
+
+        Collection<BookingDto> result = bookingService.getAllUserBookings(booker.getId(), State.WAITING,
+                second.getEnd(), second.getId(), 20);
 
         assertEquals(1, result.size());
+        assertEquals(first.getId(), result.iterator().next().getId());
+    }
+
+    @Test
+    void createBooking_WhenIntervalOverlapsWaitingBooking_ShouldThrowNotAvailableException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(new BookingCreateDto(item.getId(), start, start.plusDays(2), 0L),
+                booker.getId());
+
+        BookingCreateDto overlapping = new BookingCreateDto(item.getId(), start.plusDays(1), start.plusDays(3), 0L);
+
+        assertThrows(NotAvailableException.class,
+                () -> bookingService.createBooking(overlapping, booker.getId()));
+    }
+
+    @Test
+    void createBooking_WhenOverlappingBookingRejected_ShouldCreateBooking() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto rejected = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusDays(2), 0L), booker.getId());
+        bookingService.itemOwnerBookingSolution(rejected.getId(), owner.getId(), false);
+
+        BookingDto result = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusDays(1), start.plusDays(3), 0L), booker.getId());
+
+        assertEquals(BookingStatus.WAITING, result.getStatus());
+    }
+
+    @Test
+    void createBookings_ShouldReturnResultPerEntry() {
+        Item unavailable = itemRepository.save(new Item(0L, "Недоступная вещь", "Описание", false, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingCreateDto> dtos = List.of(
+                new BookingCreateDto(item.getId(), start, start.plusDays(2), 0L),
+                new BookingCreateDto(item.getId(), start.plusDays(1), start.plusDays(3), 0L),
+                new BookingCreateDto(item.getId(), start.plusDays(2), start.plusDays(3), 0L),
+                new BookingCreateDto(unavailable.getId(), start, start.plusDays(1), 0L),
+                new BookingCreateDto(9999L, start, start.plusDays(1), 0L));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(dtos, booker.getId());
+
+        assertEquals(5, results.size());
+        assertEquals(List.of(201, 400, 201, 400, 404), results.stream().map(BookingBatchResultDto::getStatus).toList());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        BookingDto created = results.getFirst().getBooking();
+        assertNull(results.get(1).getBooking());
+        assertNotNull(results.get(1).getError());
+        assertEquals(created, bookingService.getBookingById(created.getId(), booker.getId()));
+        assertEquals(BookingStatus.WAITING, created.getStatus());
+        assertThrows(NotAvailableException.class, () -> bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusHours(1), start.plusHours(2), 0L), booker.getId()));
+    }
+
+    @Test
+    void createBookings_WhenUserNotFound_ShouldThrowNotFoundException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingCreateDto> dtos = List.of(new BookingCreateDto(item.getId(), start, start.plusDays(1), 0L));
+
+        assertThrows(NotFoundException.class, () -> bookingService.createBookings(dtos, 9999L));
+    }
+
+    @Test
+    void itemOwnerBookingsSolution_ShouldUpdateOnlyOwnWaitingBookings() {
+        User otherOwner = userRepository.save(new User(0L, "Другой владелец", "other@example.com"));
+        Item otherItem = itemRepository.save(new Item(0L, "Чужая вещь", "Описание", true, otherOwner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto first = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusDays(1), 0L), booker.getId());
+        BookingDto second = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusDays(2), start.plusDays(3), 0L), booker.getId());
+        BookingDto alreadyRejected = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start.plusDays(4), start.plusDays(5), 0L), booker.getId());
+        bookingService.itemOwnerBookingSolution(alreadyRejected.getId(), owner.getId(), false);
+        BookingDto foreign = bookingService.createBooking(
+                new BookingCreateDto(otherItem.getId(), start, start.plusDays(1), 0L), booker.getId());
+
+        List<BookingDto> result = bookingService.itemOwnerBookingsSolution(
+                List.of(first.getId(), second.getId(), alreadyRejected.getId(), foreign.getId(), 9999L),
+                owner.getId(), true);
+
+        assertEquals(List.of(first.getId(), second.getId()), result.stream().map(BookingDto::getId).sorted().toList());
+        assertTrue(result.stream().allMatch(booking -> booking.getStatus() == BookingStatus.APPROVED));
+        assertEquals(BookingStatus.APPROVED, bookingService.getBookingById(first.getId(), owner.getId()).getStatus());
+        assertEquals(BookingStatus.REJECTED,
+                bookingService.getBookingById(alreadyRejected.getId(), owner.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getBookingById(foreign.getId(), booker.getId()).getStatus());
+    }
+
+    @Test
+    void itemOwnerBookingsSolution_WhenRejected_ShouldFreeIntervals() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto waiting = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusDays(1), 0L), booker.getId());
+
+        List<BookingDto> result = bookingService.itemOwnerBookingsSolution(List.of(waiting.getId()),
+                owner.getId(), false);
+
+        assertEquals(BookingStatus.REJECTED, result.getFirst().getStatus());
+        assertDoesNotThrow(() -> bookingService.createBooking(
+                new BookingCreateDto(item.getId(), start, start.plusDays(1), 0L), booker.getId()));
+    }
+
+    @Test
+    void itemOwnerBookingSolution_ShouldUpdateItemAvailability() {
+        LocalDate day = LocalDate.now().plusDays(10);
+        BookingDto created = bookingService.createBooking(new BookingCreateDto(item.getId(), day.atTime(10, 0),
+                day.plusDays(2).atTime(10, 0), 0L), booker.getId());
+
+        bookingService.itemOwnerBookingSolution(created.getId(), owner.getId(), true);
+        ItemAvailabilityDto approved = itemService.getItemAvailability(item.getId(), day.minusDays(1),
+                day.plusDays(3));
+
+        assertEquals(List.of(day, day.plusDays(1), day.plusDays(2)), approved.getBookedDays());
+        assertEquals(List.of(day.minusDays(1), day.plusDays(3)), approved.getFreeDays());
+
+        bookingService.itemOwnerBookingSolution(created.getId(), owner.getId(), false);
+        ItemAvailabilityDto rejected = itemService.getItemAvailability(item.getId(), day.minusDays(1),
+                day.plusDays(3));
+
+        assertTrue(rejected.getBookedDays().isEmpty());
+        assertEquals(5, rejected.getFreeDays().size());
+    }
+
+    @Test
+    void exportOwnerBookings_ShouldStreamAllBookingsNewestFirst() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingCreateDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            dtos.add(new BookingCreateDto(item.getId(), start.plusHours(i), start.plusHours(i + 1), 0L));
+        }
+        bookingService.createBookings(dtos, booker.getId());
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.exportOwnerBookings(owner.getId(), exported::add);
+
+        assertEquals(1200, exported.size());
+        assertEquals(start.plusHours(1200), exported.getFirst().getEnd());
+        assertEquals(start.plusHours(1), exported.getLast().getEnd());
+        assertEquals(owner.getName(), exported.getLast().getItem().getOwnerName());
+    }
+
+    @Test
+    void getBookingCounts_ShouldMatchListingsAfterRebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto future = bookingService.createBooking(
+                new BookingCreateDto(item.getId(), now.plusDays(1), now.plusDays(2), 0L), booker.getId());
+        bookingService.createBooking(
+                new BookingCreateDto(item.getId(), now.plusDays(3), now.plusDays(4), 0L), booker.getId());
+        bookingRepository.save(new Booking(0L, now.minusDays(3), now.minusDays(2), item, booker,
+                BookingStatus.APPROVED));
+        bookingService.itemOwnerBookingSolution(future.getId(), owner.getId(), false);
+
+        Map<State, Long> counts = bookingService.getUserBookingCounts(booker.getId());
+        assertEquals(2L, counts.get(State.ALL));
+        assertEquals(1L, counts.get(State.WAITING));
+        assertEquals(1L, counts.get(State.REJECTED));
+
+        BookingStateCounters rebuilt = new BookingStateCounters();
+        new BookingCountersInitializer(bookingRepository, rebuilt).afterSingletonsInstantiated();
+
+        for (State state : State.values()) {
+            long bookerListed = bookingService.getAllUserBookings(booker.getId(), state, null, null, 100).size();
+            long ownerListed = bookingService.getOwnerItemsBookings(owner.getId(), state, null, null, 100).size();
+            assertEquals(bookerListed, rebuilt.getBookerCounts(booker.getId()).get(state), state.name());
+            assertEquals(ownerListed, rebuilt.getOwnerCounts(owner.getId()).get(state), state.name());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.integration.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"shareit.items.search.mode=MEMORY", "shareit.items.search.cache.enabled=true"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemSearchIndexIntegrationTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(0L, "Владелец", "owner@example.com"));
+    }
+
+    @Test
+    void getSearchItems_ShouldFollowItemWritesWithoutQueryingDatabase() {
+        ItemDto drill = itemService.createItem(new ItemCreateDto("Дрель", "Ударная", true, 0L, null), owner.getId());
+        itemService.createItem(new ItemCreateDto("Лестница", "Складная", true, 0L, null), owner.getId());
+
+        assertEquals(List.of(drill.getId()), ids(itemService.getSearchItems("дрел", 0, 20)));
+
+        itemService.updateItem(new ItemUpdateDto(0L, "Перфоратор", null, null, 0L), drill.getId(), owner.getId());
+        assertTrue(itemService.getSearchItems("дрел", 0, 20).isEmpty());
+        assertEquals(List.of(drill.getId()), ids(itemService.getSearchItems("перфо", 0, 20)));
+        assertEquals(List.of("Перфоратор"), itemService.getItemSuggestions("пер", 10));
+
+        itemService.deleteItemById(drill.getId(), owner.getId());
+        assertTrue(itemService.getSearchItems("перфо", 0, 20).isEmpty());
+        assertTrue(itemService.getItemSuggestions("пер", 10).isEmpty());
+        assertEquals(List.of("Лестница"), itemService.getItemSuggestions("л", 10));
+        assertEquals(1, itemSearchIndex.size());
+    }
+
+    @Test
+    void getSearchItems_ShouldNotSeeItemFromRolledBackTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.createItem(new ItemCreateDto("Палатка", "Трёхместная", true, 0L, null), owner.getId());
+            assertEquals(1, itemService.getSearchItems("палат", 0, 20).size());
+            assertEquals(List.of("Палатка"), itemService.getItemSuggestions("пал", 10));
+            status.setRollbackOnly();
+        });
+
+        assertTrue(itemService.getSearchItems("палат", 0, 20).isEmpty());
+        assertTrue(itemService.getItemSuggestions("пал", 10).isEmpty());
+        assertEquals(0, itemRepository.count());
+    }
+
+    private static List<Long> ids(Collection<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
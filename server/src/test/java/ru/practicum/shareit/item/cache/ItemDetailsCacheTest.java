@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemDetailsCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemDetailsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemDetailsCache(meterRegistry, true, 2, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldLoadItemOnceAndReturnIndependentCopies() {
+        ItemDto first = cache.get(1L, this::load);
+        first.setNextBooking(7L);
+        first.setName("Изменено");
+        ItemDto second = cache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals("Дрель", second.getName());
+        assertNull(second.getNextBooking());
+        assertEquals(1, second.getComments().size());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemDetailsCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_ShouldNotKeepBookingsOfLoadedItem() {
+        cache.get(1L, id -> {
+            ItemDto itemDto = load(id);
+            itemDto.setLastBooking(5L);
+            return itemDto;
+        });
+
+        assertNull(cache.get(1L, this::load).getLastBooking());
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnlyInvalidatedItem() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        assertEquals(3, loads.get());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingItem() {
+        assertThrows(NotFoundException.class, () -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            throw new NotFoundException("Предмета с id=" + id + " не существует");
+        }));
+
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldBeBoundedByMaxSize() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(3L, this::load);
+
+        assertEquals(2, cache.size());
+    }
+
+    private ItemDto load(long itemId) {
+        loads.incrementAndGet();
+        List<CommentDto> comments = new ArrayList<>();
+        comments.add(new CommentDto(1L, "Отличная", "Автор", LocalDateTime.of(2050, 1, 1, 10, 0)));
+        return new ItemDto(itemId, "Дрель", "Ударная", true, 1L, null, null, null, comments);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
@@ -15,10 +16,15 @@ import ru.practicum.shareit.item.model.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -139,24 +145,24 @@ public class ItemControllerTest {
 
     @Test
     void getItemById_ShouldReturnItemDto_WhenExists() throws Exception {
-        when(itemService.getItemById(1L)).thenReturn(itemDto);
+        when(itemService.getItemById(1L, null)).thenReturn(itemDto);
 
         mockMvc.perform(get("/items/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(itemDto.getId()));
 
-        verify(itemService, times(1)).getItemById(1L);
+        verify(itemService, times(1)).getItemById(1L, null);
     }
 
     @Test
     void getItemById_NotFound_ShouldReturnNotFound() throws Exception {
-        when(itemService.getItemById(100L))
+        when(itemService.getItemById(100L, null))
                 .thenThrow(new NotFoundException("Предмет не найден"));
 
         mockMvc.perform(get("/items/100"))
                 .andExpect(status().isNotFound());
 
-        verify(itemService, times(1)).getItemById(100L);
+        verify(itemService, times(1)).getItemById(100L, null);
     }
 
     @Test
@@ -173,19 +179,31 @@ public class ItemControllerTest {
 
     @Test
     void getSearchItems_ShouldReturnMatchingItems_WhenTextProvided() throws Exception {
-        when(itemService.getSearchItems("предмет")).thenReturn(List.of(itemDto));
+        when(itemService.getSearchItems("предмет", 0, 20)).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "предмет"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(itemDto.getId()));
 
-        verify(itemService, times(1)).getSearchItems("предмет");
+        verify(itemService, times(1)).getSearchItems("предмет", 0, 20);
+    }
+
+    @Test
+    void getSearchItems_ShouldPassPage() throws Exception {
+        when(itemService.getSearchItems("предмет", 10, 5)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "предмет")
+                        .param("from", "10")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(itemDto.getId()));
     }
 
     @Test
     void getSearchItems_BlankText_ShouldReturnEmptyList() throws Exception {
-        when(itemService.getSearchItems("")).thenReturn(Collections.emptyList());
+        when(itemService.getSearchItems("", 0, 20)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/items/search")
                         .param("text", ""))
@@ -195,6 +213,116 @@ public class ItemControllerTest {
         verify(itemService, never()).getUserItems(1L);
     }
 
+    @Test
+    void importItems_ShouldParseNdjsonLineByLine() throws Exception {
+        List<String> imported = new ArrayList<>();
+        when(itemService.importItems(any(), eq(1L))).thenAnswer(invocation -> {
+            Iterator<ItemCreateDto> items = invocation.getArgument(0);
+            items.forEachRemaining(item -> imported.add(item.getName()));
+            return new ItemImportResultDto(imported.size(), 51L, 52L);
+        });
+
+        mockMvc.perform(post("/items/import")
+                        .header(userIdHeader, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Дрель","description":"Ударная","available":true}
+                                {"name":"Лестница","description":"Складная","available":false}
+                                """.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.lastId").value(52));
+
+        assertEquals(List.of("Дрель", "Лестница"), imported);
+    }
+
+    @Test
+    void importItems_ShouldReturn400_WhenLineIsMalformed() throws Exception {
+        mockImportConsumingAllItems();
+
+        mockMvc.perform(post("/items/import")
+                        .header(userIdHeader, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Дрель","description":"Ударная","available":true}
+                                {
+                                """.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importItems_ShouldReturn400_WhenLineIsInvalid() throws Exception {
+        mockImportConsumingAllItems();
+
+        MvcResult result = mockMvc.perform(post("/items/import")
+                        .header(userIdHeader, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Дрель","description":"Ударная","available":true}
+
+                                {"name":" ","description":"Складная","available":true}
+                                """.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertEquals("Строка 3: Название предмета не может быть пустым.",
+                result.getResolvedException().getMessage());
+    }
+
+    @Test
+    void importItems_ShouldReportAllViolationsOfLine() throws Exception {
+        mockImportConsumingAllItems();
+
+        MvcResult result = mockMvc.perform(post("/items/import")
+                        .header(userIdHeader, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Дрель","description":"","requestId":-1}
+                                """.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertEquals("Строка 1: Статус аренды предмета не может быть пустым. Описание предмета не может быть "
+                + "пустым. Id запроса не может быть отрицательным", result.getResolvedException().getMessage());
+    }
+
+    private void mockImportConsumingAllItems() {
+        when(itemService.importItems(any(), eq(1L))).thenAnswer(invocation -> {
+            Iterator<ItemCreateDto> items = invocation.getArgument(0);
+            items.forEachRemaining(item -> { });
+            return new ItemImportResultDto(1, 51L, 51L);
+        });
+    }
+
+    @Test
+    void getItemSuggestions_ShouldReturnNames() throws Exception {
+        when(itemService.getItemSuggestions("пред", 10)).thenReturn(List.of("Предмет"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "пред"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Предмет"));
+
+        verify(itemService, times(1)).getItemSuggestions("пред", 10);
+    }
+
+    @Test
+    void getItemAvailability_ShouldReturnBookedAndFreeDays() throws Exception {
+        LocalDate from = LocalDate.of(2050, 3, 1);
+        LocalDate to = LocalDate.of(2050, 3, 2);
+        when(itemService.getItemAvailability(1L, from, to))
+                .thenReturn(new ItemAvailabilityDto(1L, from, to, List.of(from), List.of(to)));
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2050-03-01")
+                        .param("to", "2050-03-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookedDays[0]").value("2050-03-01"))
+                .andExpect(jsonPath("$.freeDays[0]").value("2050-03-02"));
+
+        verify(itemService, times(1)).getItemAvailability(1L, from, to);
+    }
+
     @Test
     void deleteItemById_ShouldReturnNoContent_WhenSuccessful() throws Exception {
         doNothing().when(itemService).deleteItemById(1L, 1L);
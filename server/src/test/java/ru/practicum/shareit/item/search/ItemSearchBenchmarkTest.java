@@ -0,0 +1,174 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение задержки поиска вещей на PostgreSQL: LIKE без индексов, полнотекстовый индекс
+ * и тот же LIKE по триграммным индексам pg_trgm.
+ * Запускается только вручную, например:
+ * <pre>
+ * mvn -pl server test -Dtest=ItemSearchBenchmarkTest \
+ *     -Dshareit.benchmark.jdbc-url=jdbc:postgresql://localhost:5432/shareit \
+ *     -Dshareit.benchmark.username=dbuser -Dshareit.benchmark.password=12345
+ * </pre>
+ * Таблица bench_items создаётся и удаляется самим тестом, число строк задаётся
+ * shareit.benchmark.items (по умолчанию 1 000 000). База должна быть в кодировке UTF8: в SQL_ASCII
+ * конфигурация russian не разбирает кириллицу и полнотекстовый поиск ничего не находит.
+ * <p>
+ * Результат на локальном PostgreSQL 16.2 (UTF8, C.UTF-8), 1 000 000 строк, медиана из 20 запросов:
+ * <pre>
+ * запрос            LIKE      FULLTEXT  TRIGRAM
+ * дрель             1608 мс   170 мс    365 мс
+ * лестница          1633 мс   152 мс    395 мс
+ * набор             1585 мс   163 мс    421 мс
+ * палатка ударная   1716 мс   143 мс    175 мс
+ * </pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark.jdbc-url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchBenchmarkTest {
+    private static final List<String> TERMS = List.of("дрель", "лестница", "набор", "палатка ударная");
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 20;
+
+    private static final String LIKE_QUERY = """
+            SELECT id FROM bench_items
+            WHERE available = true
+            AND (LOWER(name) LIKE LOWER(CONCAT('%', ?, '%'))
+            OR LOWER(description) LIKE LOWER(CONCAT('%', ?, '%')))
+            """;
+    private static final String FULLTEXT_QUERY = """
+            SELECT i.id FROM bench_items i, websearch_to_tsquery('russian', ?) q
+            WHERE i.available = true
+            AND i.search_vector @@ q
+            ORDER BY ts_rank_cd(i.search_vector, q) DESC, i.id
+            LIMIT 20
+            """;
+    private static final String TRIGRAM_QUERY = """
+            SELECT id FROM bench_items
+            WHERE available = true
+            AND (lower(name) LIKE '%' || lower(?) || '%'
+            OR lower(description) LIKE '%' || lower(?) || '%')
+            ORDER BY CASE WHEN lower(name) LIKE '%' || lower(?) || '%' THEN 2 ELSE 0 END
+            + CASE WHEN lower(description) LIKE '%' || lower(?) || '%' THEN 1 ELSE 0 END DESC, id
+            LIMIT 20
+            """;
+
+    private Connection connection;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("shareit.benchmark.jdbc-url"),
+                System.getProperty("shareit.benchmark.username"), System.getProperty("shareit.benchmark.password"));
+        int rows = Integer.getInteger("shareit.benchmark.items", 1_000_000);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_items");
+            statement.execute("""
+                    CREATE TABLE bench_items (
+                      id BIGINT PRIMARY KEY,
+                      name VARCHAR(255),
+                      description VARCHAR(2000),
+                      available BOOLEAN,
+                      search_vector TSVECTOR GENERATED ALWAYS AS (
+                        setweight(to_tsvector('russian', coalesce(name, '')), 'A')
+                        || setweight(to_tsvector('russian', coalesce(description, '')), 'B')) STORED)
+                    """);
+        }
+        try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO bench_items (id, name, description, available)
+                    SELECT g,
+                           w.nouns[1 + g % array_length(w.nouns, 1)] || ' ' || w.adjectives[1 + g % 7 % 5],
+                           w.adjectives[1 + g % 5] || ' ' || w.nouns[1 + g / 7 % array_length(w.nouns, 1)]
+                               || ' для дома и дачи, модель ' || g % 10000,
+                           g % 10 <> 0
+                    FROM generate_series(1, ?) g,
+                         (SELECT ARRAY['дрель', 'перфоратор', 'лестница', 'набор', 'палатка', 'велосипед',
+                                       'пила', 'шуруповёрт', 'газонокосилка', 'отвёртка', 'байдарка',
+                                       'проектор', 'стремянка', 'компрессор', 'мангал', 'удочка'] AS nouns,
+                                 ARRAY['ударная', 'складная', 'туристическая', 'профессиональная',
+                                       'аккумуляторная'] AS adjectives) w
+                    """)) {
+            insert.setInt(1, rows);
+            insert.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON bench_items USING gin (search_vector)");
+            statement.execute("ANALYZE bench_items");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_items");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareSearchLatency() throws SQLException {
+        long[][] like = new long[TERMS.size()][];
+        long[][] fullText = new long[TERMS.size()][];
+        for (int i = 0; i < TERMS.size(); i++) {
+            like[i] = measure(LIKE_QUERY, TERMS.get(i), 2);
+            fullText[i] = measure(FULLTEXT_QUERY, TERMS.get(i), 1);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("CREATE INDEX ON bench_items USING gin (lower(name) gin_trgm_ops)");
+            statement.execute("CREATE INDEX ON bench_items USING gin (lower(description) gin_trgm_ops)");
+            statement.execute("ANALYZE bench_items");
+        }
+        for (int i = 0; i < TERMS.size(); i++) {
+            long[] trigram = measure(TRIGRAM_QUERY, TERMS.get(i), 4);
+            log.info("{} | LIKE: {} | FULLTEXT: {} | TRIGRAM: {}", TERMS.get(i),
+                    format(like[i]), format(fullText[i]), format(trigram));
+        }
+    }
+
+    private static String format(long[] timings) {
+        return String.format("медиана %6.1f мс, p95 %6.1f мс", timings[ITERATIONS / 2] / 1e6,
+                timings[ITERATIONS * 95 / 100] / 1e6);
+    }
+
+    private long[] measure(String sql, String term, int parameters) throws SQLException {
+        long[] timings = new long[ITERATIONS];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= parameters; i++) {
+                statement.setString(i, term);
+            }
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                long started = System.nanoTime();
+                int found = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        found++;
+                    }
+                }
+                if (i >= WARMUP) {
+                    timings[i - WARMUP] = System.nanoTime() - started;
+                }
+                assertTrue(found > 0, "По запросу '" + term + "' ничего не найдено");
+            }
+        }
+        Arrays.sort(timings);
+        return timings;
+    }
+}
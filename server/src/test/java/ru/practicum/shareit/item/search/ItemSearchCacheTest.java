@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(meterRegistry, true, 10, Duration.ofMinutes(10));
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldReuseResultForSameTextInAnyCase() {
+        List<ItemDto> first = cache.get("ДРЕЛЬ", 0, 20, () -> search(2));
+        List<ItemDto> second = cache.get("дрель", 0, 20, () -> search(2));
+
+        assertEquals(1, searches.get());
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemSearchCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("shareit.items.search.cache.hit-ratio").gauge().value());
+    }
+
+    @Test
+    void get_ShouldKeepPagesSeparately() {
+        cache.get("дрель", 0, 20, () -> search(2));
+        cache.get("дрель", 20, 20, () -> search(2));
+
+        assertEquals(2, searches.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void invalidate_ShouldDropCachedResults() {
+        cache.get("дрель", 0, 20, () -> search(2));
+
+        cache.invalidate();
+        cache.get("дрель", 0, 20, () -> search(2));
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheResultOfSearchStartedBeforeInvalidation() {
+        cache.get("дрель", 0, 20, () -> {
+            cache.invalidate();
+            return search(2);
+        });
+        cache.get("дрель", 0, 20, () -> search(2));
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void get_ShouldEvictByNumberOfCachedItems() {
+        cache.get("дрель", 0, 20, () -> search(9));
+        cache.get("лестница", 0, 20, () -> search(9));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_ShouldAlwaysSearch_WhenDisabled() {
+        ItemSearchCache disabled = new ItemSearchCache(meterRegistry, false, 10, Duration.ofMinutes(10));
+
+        disabled.get("дрель", 0, 20, () -> search(1));
+        disabled.get("дрель", 0, 20, () -> search(1));
+
+        assertEquals(2, searches.get());
+        assertEquals(0, disabled.size());
+    }
+
+    private List<ItemDto> search(int found) {
+        searches.incrementAndGet();
+        List<ItemDto> result = new ArrayList<>();
+        LongStream.rangeClosed(1, found).forEach(id ->
+                result.add(new ItemDto(id, "Дрель", "Ударная", true, 1L, null, null, null, null)));
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex();
+        index.rebuild(List.of(
+                item(1L, "Дрель ударная", "Мощная дрель для бетона", true),
+                item(2L, "Отвёртка", "Крестовая, подходит к дрели", true),
+                item(3L, "Лестница", "Складная", true),
+                item(4L, "Дрель", "Сломана", false)));
+    }
+
+    @Test
+    void search_ShouldMatchSubstringInNameOrDescriptionIgnoringCase() {
+        assertEquals(List.of(1L, 2L), ids(index.search("ДРЕЛ", 0, 20)));
+        assertEquals(List.of(1L), ids(index.search("ль для бет", 0, 20)));
+        assertEquals(List.of(3L), ids(index.search("кладн", 0, 20)));
+    }
+
+    @Test
+    void search_ShouldScanAllItems_WhenQueryShorterThanGram() {
+        assertEquals(List.of(1L, 2L, 3L), ids(index.search("а", 0, 20)));
+        assertEquals(List.of(2L), ids(index.search("ёр", 0, 20)));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        index.put(item(5L, "Кейс", "Для дрели и бит", true));
+        index.put(item(6L, "Дрель-миксер", "Для смесей", true));
+
+        assertEquals(List.of(1L, 6L, 2L, 5L), ids(index.search("дрел", 0, 20)));
+    }
+
+    @Test
+    void search_ShouldReturnRequestedPage() {
+        index.put(item(5L, "Кейс", "Для дрели и бит", true));
+        index.put(item(6L, "Дрель-миксер", "Для смесей", true));
+
+        assertEquals(List.of(6L, 2L), ids(index.search("дрел", 1, 2)));
+        assertEquals(List.of(5L), ids(index.search("дрел", 3, 2)));
+        assertTrue(index.search("дрел", 4, 2).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnEmptyList_WhenNoItemContainsAllGrams() {
+        assertTrue(index.search("дрелька", 0, 20).isEmpty());
+        assertTrue(index.search("палатка", 0, 20).isEmpty());
+    }
+
+    @Test
+    void search_ShouldNotReturnUnavailableItems() {
+        assertFalse(ids(index.search("сломана", 0, 20)).contains(4L));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void put_ShouldReplaceOldTextOfUpdatedItem() {
+        index.put(item(3L, "Стремянка", "Алюминиевая", true));
+
+        assertTrue(index.search("лестн", 0, 20).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("стремян", 0, 20)));
+    }
+
+    @Test
+    void put_ShouldRemoveItem_WhenItBecomesUnavailable() {
+        index.put(item(3L, "Лестница", "Складная", false));
+
+        assertTrue(index.search("лестн", 0, 20).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removeAndRemoveOwner_ShouldDropItemsFromPostings() {
+        index.remove(1L);
+        assertEquals(List.of(2L), ids(index.search("дрел", 0, 20)));
+
+        index.put(new ItemDto(5L, "Дрель", "Новая", true, 2L, null, null, null, null));
+        index.removeOwner(1L);
+        assertEquals(List.of(5L), ids(index.search("дрел", 0, 20)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuild_ShouldKeepItemsIndexedAfterSnapshot() {
+        index.put(item(3L, "Стремянка", "Алюминиевая", true));
+
+        index.rebuild(List.of(item(3L, "Лестница", "Складная", true), item(7L, "Перфоратор", "С кейсом", true)));
+
+        assertEquals(List.of(3L), ids(index.search("стремян", 0, 20)));
+        assertTrue(index.search("лестниц", 0, 20).isEmpty());
+        assertEquals(List.of(7L), ids(index.search("перфор", 0, 20)));
+    }
+
+    @Test
+    void search_ShouldReturnCopiesWithoutBookingData() {
+        ItemDto found = index.search("отвёрт", 0, 20).getFirst();
+        found.setName("Изменено");
+
+        assertEquals("Отвёртка", index.search("отвёрт", 0, 20).getFirst().getName());
+        assertTrue(found.isAvailable());
+        assertNull(found.getComments());
+    }
+
+    private static ItemDto item(long id, String name, String description, boolean available) {
+        return new ItemDto(id, name, description, available, 1L, null, null, null, null);
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ItemSearcherTest {
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+    private ItemSearchCache itemSearchCache;
+    private ItemSuggestIndex itemSuggestIndex;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        itemSearchIndex = spy(new ItemSearchIndex());
+        itemSearchCache = new ItemSearchCache(new SimpleMeterRegistry(), false, 0, Duration.ZERO);
+        itemSuggestIndex = new ItemSuggestIndex();
+        item = new Item(1L, "Дрель", "Ударная дрель", true, new User(1L, "Владелец", "owner@example.com"), null);
+    }
+
+    @Test
+    void search_ShouldUseLikeQuery_WhenModeLike() {
+        when(itemRepository.findByText("дрель", 0, 20)).thenReturn(List.of(item));
+
+        List<ItemDto> result = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.LIKE).search("дрель", 0, 20);
+
+        assertEquals(List.of(1L), result.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).searchByFullText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_ShouldUseFullTextQuery_WhenModeFullText() {
+        when(itemRepository.searchByFullText("дрель", 0, 20)).thenReturn(List.of(item));
+
+        List<ItemDto> result = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.FULLTEXT)
+                .search("дрель", 0, 20);
+
+        assertEquals(List.of(1L), result.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).findByText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_ShouldUseSubstringQuery_WhenModeTrigram() {
+        when(itemRepository.searchBySubstring("дрел", 0, 20)).thenReturn(List.of(item));
+
+        List<ItemDto> result = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.TRIGRAM)
+                .search("дрел", 0, 20);
+
+        assertEquals(List.of(1L), result.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).findByText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_ShouldNotQueryDatabase_WhenTextBlank() {
+        List<ItemDto> result = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.FULLTEXT)
+                .search("  ", 0, 20);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void search_ShouldUseIndexAndApplyWrites_WhenModeMemory() {
+        ItemSearcher searcher = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.MEMORY);
+
+        searcher.itemSaved(new ItemDto(1L, "Дрель", "Ударная дрель", true, 1L, null, null, null, null));
+        assertEquals(1, searcher.search("дрель", 0, 20).size());
+
+        searcher.itemDeleted(1L);
+        assertTrue(searcher.search("дрель", 0, 20).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void itemSaved_ShouldNotTouchIndex_WhenModeIsDatabase() {
+        ItemSearcher searcher = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.LIKE);
+
+        searcher.itemSaved(new ItemDto(1L, "Дрель", "Ударная дрель", true, 1L, null, null, null, null));
+        searcher.ownerDeleted(1L);
+
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    void search_ShouldServeRepeatedQueryFromCacheUntilItemWrite() {
+        ItemSearchCache cache = new ItemSearchCache(new SimpleMeterRegistry(), true, 1000, Duration.ofMinutes(10));
+        ItemSearcher searcher = new ItemSearcher(itemRepository, itemSearchIndex, cache, itemSuggestIndex,
+                ItemSearchMode.LIKE);
+        when(itemRepository.findByText(anyString(), anyInt(), anyInt())).thenReturn(List.of(item));
+
+        searcher.search("Дрель", 0, 20);
+        searcher.search("дрель", 0, 20);
+        verify(itemRepository, times(1)).findByText(anyString(), anyInt(), anyInt());
+
+        searcher.itemDeleted(2L);
+        searcher.search("дрель", 0, 20);
+        verify(itemRepository, times(2)).findByText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void suggest_ShouldFollowItemWritesInEveryMode() {
+        ItemSearcher searcher = new ItemSearcher(itemRepository, itemSearchIndex, itemSearchCache, itemSuggestIndex,
+                ItemSearchMode.TRIGRAM);
+
+        searcher.itemSaved(new ItemDto(1L, "Дрель", "Ударная дрель", true, 1L, null, null, null, null));
+        assertEquals(List.of("Дрель"), searcher.suggest(" др", 5));
+        assertTrue(searcher.suggest(" ", 5).isEmpty());
+
+        searcher.ownerDeleted(1L);
+        assertTrue(searcher.suggest("др", 5).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+}
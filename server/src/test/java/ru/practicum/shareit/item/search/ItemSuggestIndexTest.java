@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSuggestIndexTest {
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSuggestIndex();
+        index.rebuild(List.of(
+                item(1L, "Дрель ударная", 1L, true),
+                item(2L, "Дрель", 1L, true),
+                item(3L, "дрель", 2L, true),
+                item(4L, "Дрезина", 2L, true),
+                item(5L, "Лестница", 1L, true),
+                item(6L, "Дрова", 1L, false)));
+    }
+
+    @Test
+    void suggest_ShouldReturnDistinctNamesByPrefixInAlphabeticalOrder() {
+        assertEquals(List.of("Дрезина", "Дрель", "Дрель ударная"), index.suggest("ДР", 10));
+        assertEquals(List.of("Лестница"), index.suggest("лес", 10));
+        assertTrue(index.suggest("дрова", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldLimitNumberOfSuggestions() {
+        assertEquals(List.of("Дрезина", "Дрель"), index.suggest("др", 2));
+    }
+
+    @Test
+    void put_ShouldReplaceNameAndDropUnavailableItem() {
+        index.put(item(4L, "Стремянка", 2L, true));
+        index.put(item(5L, "Лестница", 1L, false));
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), index.suggest("др", 10));
+        assertEquals(List.of("Стремянка"), index.suggest("с", 10));
+        assertTrue(index.suggest("лес", 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepItemsIndexedAfterSnapshot() {
+        index.put(item(5L, "Стремянка", 1L, true));
+
+        index.rebuild(List.of(item(5L, "Лестница", 1L, true), item(7L, "Перфоратор", 2L, true)));
+
+        assertEquals(List.of("Стремянка"), index.suggest("стр", 10));
+        assertTrue(index.suggest("лес", 10).isEmpty());
+        assertEquals(List.of("Перфоратор"), index.suggest("пер", 10));
+    }
+
+    @Test
+    void removeAndRemoveOwner_ShouldDropNames() {
+        index.remove(1L);
+        assertEquals(List.of("Дрезина", "Дрель"), index.suggest("др", 10));
+
+        index.removeOwner(2L);
+        assertEquals(List.of("Дрель"), index.suggest("др", 10));
+        assertEquals(2, index.size());
+    }
+
+    private static ItemDto item(long id, String name, long ownerId, boolean available) {
+        return new ItemDto(id, name, "Описание", available, ownerId, null, null, null, null);
+    }
+}
@@ -1,31 +1,49 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.counter.CountedBooking;
+import ru.practicum.shareit.booking.index.ItemAvailabilityIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingBound;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.model.dto.ItemCreateDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +62,19 @@ class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private ItemSearcher itemSearcher;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private ItemAvailabilityIndex itemAvailabilityIndex = new ItemAvailabilityIndex();
+    @Mock
+    private BookingStateCounters bookingStateCounters;
+    @Spy
+    private ItemDetailsCache itemDetailsCache = new ItemDetailsCache(new SimpleMeterRegistry(), true, 100,
+            Duration.ofMinutes(5));
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -138,6 +169,41 @@ class ItemServiceImplTest {
         assertTrue(ex.getMessage().contains("Запрос на предмет с id=999 не найден"));
     }
 
+    @Test
+    void importItems_ShouldInsertFullBatchesAndRemainder() {
+        AtomicLong ids = new AtomicLong(100);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        ReflectionTestUtils.setField(itemService, "importBatchSize", 2);
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            batch.forEach(item -> item.setId(ids.incrementAndGet()));
+            return List.copyOf(batch);
+        });
+        List<ItemCreateDto> items = List.of(
+                new ItemCreateDto("Первый", "Описание", true, 0L, null),
+                new ItemCreateDto("Второй", "Описание", true, 0L, null),
+                new ItemCreateDto("Третий", "Описание", false, 0L, null));
+
+        ItemImportResultDto result = itemService.importItems(items.iterator(), 1L);
+
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(new ItemImportResultDto(3, 101L, 103L), result);
+        verify(itemSearcher, times(2)).itemsSaved(anyList());
+        verify(outboxWriter, times(2)).writeAll(any(), anyList(), any());
+        verify(entityManager, times(2)).clear();
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void importItems_ShouldThrowNotFoundException_WhenOwnerNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.importItems(List.of(itemCreateDto).iterator(), 1L));
+        verify(itemRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void updateItem_ShouldReturnUpdatedItemDto_WhenOwner() {
         ItemUpdateDto updateDto = new ItemUpdateDto();
@@ -146,13 +212,26 @@ class ItemServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         item.setName("Обновлённый предмет");
-        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(itemRepository.saveAndFlush(any(Item.class))).thenReturn(item);
 
         ItemDto result = itemService.updateItem(updateDto, 1L, 1L);
 
         assertEquals("Обновлённый предмет", result.getName());
     }
 
+    @Test
+    void updateItem_ShouldThrowAlreadyExistsException_WhenItemChangedConcurrently() {
+        ItemUpdateDto updateDto = new ItemUpdateDto();
+        updateDto.setName("Обновлённый предмет");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.saveAndFlush(any(Item.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        assertThrows(AlreadyExistsException.class, () -> itemService.updateItem(updateDto, 1L, 1L));
+    }
+
     @Test
     void updateItem_ShouldThrowNotFoundException_WhenNotOwner() {
         User anotherUser = new User(2L, "Другой", "other@example.com");
@@ -174,21 +253,42 @@ class ItemServiceImplTest {
         comment.setCreated(LocalDateTime.now());
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment));
+        when(commentRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of(comment));
 
-        ItemDto result = itemService.getItemById(1L);
+        ItemDto result = itemService.getItemById(1L, null);
 
         assertNotNull(result);
         assertEquals(1, result.getComments().size());
         assertEquals("Коммент", result.getComments().get(0).getText());
     }
 
+    @Test
+    void getItemById_ShouldServeRepeatedReadsFromCacheAndAddBookingsForOwner() {
+        ItemBookingBound next = mock(ItemBookingBound.class);
+        when(next.getItemId()).thenReturn(1L);
+        when(next.getBookingId()).thenReturn(7L);
+        when(next.getNext()).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextBookings(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(next));
+
+        ItemDto forOwner = itemService.getItemById(1L, 1L);
+        ItemDto forOther = itemService.getItemById(1L, 2L);
+
+        assertEquals(7L, forOwner.getNextBooking());
+        assertNull(forOther.getNextBooking());
+        verify(itemRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findAllByItemIdIn(List.of(1L));
+        verify(bookingRepository, times(1)).findLastAndNextBookings(anyList(), any(LocalDateTime.class));
+    }
+
     @Test
     void getItemById_ShouldThrowNotFoundException_WhenItemNotFound() {
         when(itemRepository.findById(100L)).thenReturn(Optional.empty());
 
         NotFoundException ex = assertThrows(NotFoundException.class,
-                () -> itemService.getItemById(100L));
+                () -> itemService.getItemById(100L, null));
         assertTrue(ex.getMessage().contains("Предмета с id=100 не существует"));
     }
 
@@ -203,11 +303,74 @@ class ItemServiceImplTest {
         assertEquals("Предмет", result.iterator().next().getName());
     }
 
+    @Test
+    void getUserItems_ShouldFillLastAndNextBookings() {
+        ItemBookingBound last = mock(ItemBookingBound.class);
+        when(last.getItemId()).thenReturn(item.getId());
+        when(last.getBookingId()).thenReturn(5L);
+        when(last.getNext()).thenReturn(false);
+        ItemBookingBound next = mock(ItemBookingBound.class);
+        when(next.getItemId()).thenReturn(item.getId());
+        when(next.getBookingId()).thenReturn(7L);
+        when(next.getNext()).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findByOwnerId(1L)).thenReturn(List.of(item));
+        when(bookingRepository.findLastAndNextBookings(eq(List.of(item.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(last, next));
+
+        ItemDto result = itemService.getUserItems(1L).iterator().next();
+
+        assertEquals(5L, result.getLastBooking());
+        assertEquals(7L, result.getNextBooking());
+        verify(commentRepository, times(1)).findAllByItemIdIn(List.of(item.getId()));
+    }
+
+    @Test
+    void getItemAvailability_ShouldSplitPeriodIntoBookedAndFreeDays() {
+        LocalDate day = LocalDate.of(2050, 3, 1);
+        itemAvailabilityIndex.add(new Booking(1L, day.plusDays(1).atTime(10, 0), day.plusDays(1).atTime(18, 0),
+                item, owner, BookingStatus.APPROVED));
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+
+        ItemAvailabilityDto result = itemService.getItemAvailability(item.getId(), day, day.plusDays(2));
+
+        assertEquals(List.of(day.plusDays(1)), result.getBookedDays());
+        assertEquals(List.of(day, day.plusDays(2)), result.getFreeDays());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemAvailability_ShouldThrowNotFoundException_WhenItemNotFound() {
+        when(itemRepository.existsById(100L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class,
+                () -> itemService.getItemAvailability(100L, LocalDate.now(), LocalDate.now()));
+    }
+
+    @Test
+    void getItemAvailability_ShouldThrowNotAvailableException_WhenPeriodEndsBeforeStart() {
+        LocalDate day = LocalDate.of(2050, 3, 1);
+
+        assertThrows(NotAvailableException.class,
+                () -> itemService.getItemAvailability(item.getId(), day, day.minusDays(1)));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getItemAvailability_ShouldThrowNotAvailableException_WhenPeriodLongerThanLimit() {
+        LocalDate day = LocalDate.of(2050, 3, 1);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+
+        itemService.getItemAvailability(item.getId(), day, day.plusDays(365));
+        assertThrows(NotAvailableException.class,
+                () -> itemService.getItemAvailability(item.getId(), day, day.plusDays(366)));
+    }
+
     @Test
     void getSearchItems_ShouldReturnMatchingItems_WhenTextValid() {
-        when(itemRepository.findByText("Предмет")).thenReturn(List.of(item));
+        when(itemSearcher.search("Предмет", 0, 20)).thenReturn(List.of(ItemMapper.mapToItemDto(item)));
 
-        Collection<ItemDto> result = itemService.getSearchItems("Предмет");
+        Collection<ItemDto> result = itemService.getSearchItems("Предмет", 0, 20);
 
         assertEquals(1, result.size());
         assertEquals("Предмет", result.iterator().next().getName());
@@ -215,19 +378,31 @@ class ItemServiceImplTest {
 
     @Test
     void getSearchItems_ShouldReturnEmptyList_WhenTextBlank() {
-        Collection<ItemDto> result = itemService.getSearchItems("   ");
+        Collection<ItemDto> result = itemService.getSearchItems("   ", 0, 20);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getItemSuggestions_ShouldReturnNamesFromIndex() {
+        when(itemSearcher.suggest("Пре", 10)).thenReturn(List.of("Предмет"));
+
+        assertEquals(List.of("Предмет"), itemService.getItemSuggestions("Пре", 10));
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void deleteItemById_ShouldDelete_WhenOwner() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        List<CountedBooking> bookings = List.of(mock(CountedBooking.class));
+        when(bookingRepository.findCountedByItemId(1L)).thenReturn(bookings);
         doNothing().when(itemRepository).deleteById(1L);
 
         itemService.deleteItemById(1L, 1L);
 
         verify(itemRepository, times(1)).deleteById(1L);
+        verify(itemDetailsCache, times(1)).invalidate(1L);
+        verify(bookingStateCounters, times(1)).remove(bookings);
     }
 
     @Test
@@ -256,6 +431,7 @@ class ItemServiceImplTest {
         });
 
         CommentDto result = itemService.createComment(commentCreateDto, 1L, 1L);
+        verify(itemDetailsCache, times(1)).invalidate(1L);
 
         assertNotNull(result);
         assertEquals("Комментарий", result.getText());
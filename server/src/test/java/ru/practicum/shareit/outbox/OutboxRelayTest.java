@@ -0,0 +1,86 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OutboxSink outboxSink;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void relay_ShouldPublishAndDeleteBatchesUntilOutboxIsDrained() {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        OutboxEvent third = event(3L);
+        when(outboxEventRepository.lockNextBatch(Limit.of(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        outboxRelay.relay();
+
+        verify(outboxSink).publish(List.of(first, second));
+        verify(outboxSink).publish(List.of(third));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void relay_ShouldKeepEvents_WhenSinkFails() {
+        OutboxEvent first = event(1L);
+        when(outboxEventRepository.lockNextBatch(Limit.of(2))).thenReturn(List.of(first));
+        doThrow(new IllegalStateException("недоступен")).when(outboxSink).publish(List.of(first));
+
+        assertDoesNotThrow(() -> outboxRelay.relay());
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void relayBatch_ShouldDoNothing_WhenOutboxIsEmpty() {
+        when(outboxEventRepository.lockNextBatch(Limit.of(2))).thenReturn(List.of());
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        verifyNoInteractions(outboxSink);
+    }
+
+    private static OutboxEvent event(long id) {
+        return new OutboxEvent(id, OutboxEventType.ITEM_CREATED, "ITEM", id, "{\"id\":" + id + "}",
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox.sink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileOutboxSinkTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void publish_ShouldAppendOneJsonLinePerEvent() throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+        LocalDateTime created = LocalDateTime.of(2050, 1, 1, 12, 0);
+
+        sink.publish(List.of(new OutboxEvent(1L, OutboxEventType.BOOKING_CREATED, "BOOKING", 10L,
+                "{\"id\":10,\"status\":\"WAITING\"}", created)));
+        sink.publish(List.of(new OutboxEvent(2L, OutboxEventType.BOOKING_APPROVED, "BOOKING", 10L,
+                "{\"id\":10,\"status\":\"APPROVED\"}", created)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("BOOKING_CREATED", first.get("type").asText());
+        assertEquals(10L, first.get("aggregateId").asLong());
+        assertEquals("WAITING", first.get("payload").get("status").asText());
+        assertEquals("APPROVED", objectMapper.readTree(lines.get(1)).get("payload").get("status").asText());
+    }
+}
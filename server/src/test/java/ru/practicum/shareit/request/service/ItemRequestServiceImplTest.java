@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.dto.ItemRequestAnswer;
 import ru.practicum.shareit.request.model.dto.ItemRequestCreateDto;
@@ -31,6 +32,8 @@ class ItemRequestServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private OutboxWriter outboxWriter;
 
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
@@ -127,7 +130,7 @@ class ItemRequestServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findByRequesterIdOrderByCreatedAsc(1L))
                 .thenReturn(List.of(itemRequest));
-        when(itemRepository.findByRequestId(1L)).thenReturn(List.of(item));
+        when(itemRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
 
         List<ItemRequestDto> result = itemRequestService.getAllUserItemRequests(1L);
 
@@ -151,7 +154,7 @@ class ItemRequestServiceImplTest {
     void getAllItemRequests_ShouldReturnAllRequests_WhenUserExists() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAll()).thenReturn(List.of(itemRequest));
-        when(itemRepository.findByRequestId(1L)).thenReturn(List.of(item));
+        when(itemRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
 
         List<ItemRequestDto> result = itemRequestService.getAllItemRequests(1L);
 
@@ -160,6 +163,21 @@ class ItemRequestServiceImplTest {
         assertEquals(1, result.get(0).getItems().size());
     }
 
+    @Test
+    void getAllItemRequests_ShouldLoadAnswersForAllRequestsInOneQuery() {
+        ItemRequest unanswered = new ItemRequest(2L, "Нужна лестница", user, LocalDateTime.now());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAll()).thenReturn(List.of(itemRequest, unanswered));
+        when(itemRepository.findByRequestIdIn(List.of(1L, 2L))).thenReturn(List.of(item));
+
+        List<ItemRequestDto> result = itemRequestService.getAllItemRequests(1L);
+
+        assertEquals(List.of(10L), result.get(0).getItems().stream().map(ItemRequestAnswer::getId).toList());
+        assertTrue(result.get(1).getItems().isEmpty());
+        verify(itemRepository, times(1)).findByRequestIdIn(anyCollection());
+        verify(itemRepository, never()).findByRequestId(anyLong());
+    }
+
     @Test
     void getAllItemRequests_ShouldThrowNotFoundException_WhenUserNotFound() {
         when(userRepository.findById(100L)).thenReturn(Optional.empty());
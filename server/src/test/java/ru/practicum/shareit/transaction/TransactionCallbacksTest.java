@@ -0,0 +1,60 @@
+package ru.practicum.shareit.transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionCallbacksTest {
+    private final List<String> calls = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterRollback_ShouldRunOnlyOnRollback() {
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(List.of("rollback:" + TransactionSynchronization.STATUS_ROLLED_BACK), calls);
+    }
+
+    @Test
+    void afterCompletion_ShouldRunOnAnyOutcome() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCompletion(() -> calls.add("completion"));
+        finish(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of("completion"), calls);
+    }
+
+    @Test
+    void callbacks_ShouldNotRegister_WhenNoTransaction() {
+        TransactionCallbacks.afterRollback(() -> calls.add("rollback"));
+        TransactionCallbacks.afterCompletion(() -> calls.add("completion"));
+
+        assertEquals(List.of(), calls);
+    }
+
+    private void complete(int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterRollback(() -> calls.add("rollback:" + status));
+        finish(status);
+    }
+
+    private void finish(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
@@ -5,8 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.counter.BookingStateCounters;
+import ru.practicum.shareit.booking.counter.CountedBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.search.ItemSearcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserCreateDto;
 import ru.practicum.shareit.user.model.dto.UserDto;
@@ -24,6 +29,14 @@ class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemSearcher itemSearcher;
+    @Mock
+    private ItemDetailsCache itemDetailsCache;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingStateCounters bookingStateCounters;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -143,12 +156,16 @@ class UserServiceImplTest {
 
     @Test
     void deleteUserById_ShouldDeleteUser_WhenExists() {
+        List<CountedBooking> bookings = List.of(mock(CountedBooking.class));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingRepository.findCountedByUserId(1L)).thenReturn(bookings);
         doNothing().when(userRepository).deleteById(1L);
 
         userService.deleteUserById(1L);
 
         verify(userRepository, times(1)).deleteById(1L);
+        verify(itemSearcher, times(1)).ownerDeleted(1L);
+        verify(bookingStateCounters, times(1)).remove(bookings);
     }
 
     @Test